@@ -0,0 +1,215 @@
+package geometries;
+
+import primitives.*;
+
+/**
+ * Axis-aligned bounding box (AABB) of a geometry in 3D space.
+ * The box is defined by its minimal and maximal coordinates on each axis.
+ * An unbounded geometry (such as an infinite plane or tube) is represented by
+ * the {@link #INFINITE} box.
+ * The box is immutable, and the ray test (the slab test) works on the raw coordinates
+ * so it doesn't allocate any objects - it is cheap enough to be run before any full
+ * intersection calculation for rejecting rays which pass far from the geometry.
+ */
+public final class BoundingBox {
+    /**
+     * The infinite box - used for unbounded geometries
+     */
+    public static final BoundingBox INFINITE = new BoundingBox(
+            Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
+            Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+    /** minimal x coordinate of the box */
+    public final double minX;
+    /** minimal y coordinate of the box */
+    public final double minY;
+    /** minimal z coordinate of the box */
+    public final double minZ;
+    /** maximal x coordinate of the box */
+    public final double maxX;
+    /** maximal y coordinate of the box */
+    public final double maxY;
+    /** maximal z coordinate of the box */
+    public final double maxZ;
+
+    /**
+     * Constructs a bounding box from its minimal and maximal coordinates.
+     *
+     * @param minX minimal x coordinate
+     * @param minY minimal y coordinate
+     * @param minZ minimal z coordinate
+     * @param maxX maximal x coordinate
+     * @param maxY maximal y coordinate
+     * @param maxZ maximal z coordinate
+     * @throws IllegalArgumentException if a minimal coordinate is bigger than the maximal one
+     */
+    public BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        if (minX > maxX || minY > maxY || minZ > maxZ)
+            throw new IllegalArgumentException("minimal coordinates of a box can't be bigger than maximal ones");
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    /**
+     * Constructs the smallest bounding box containing all the given points.
+     *
+     * @param points the points to bound, at least one
+     * @throws IllegalArgumentException if no points are given
+     */
+    public BoundingBox(Point... points) {
+        if (points.length == 0)
+            throw new IllegalArgumentException("A bounding box needs at least one point");
+        double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY, z0 = Double.POSITIVE_INFINITY;
+        double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY, z1 = Double.NEGATIVE_INFINITY;
+        for (Point p : points) {
+            Double3 xyz = p.getXYZ();
+            x0 = Math.min(x0, xyz.d1());
+            y0 = Math.min(y0, xyz.d2());
+            z0 = Math.min(z0, xyz.d3());
+            x1 = Math.max(x1, xyz.d1());
+            y1 = Math.max(y1, xyz.d2());
+            z1 = Math.max(z1, xyz.d3());
+        }
+        minX = x0;
+        minY = y0;
+        minZ = z0;
+        maxX = x1;
+        maxY = y1;
+        maxZ = z1;
+    }
+
+    /**
+     * Returns the smallest box containing both this box and the other box.
+     *
+     * @param other the other box
+     * @return the union box
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(Math.min(minX, other.minX), Math.min(minY, other.minY), Math.min(minZ, other.minZ),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY), Math.max(maxZ, other.maxZ));
+    }
+
+    /**
+     * Checks whether the box is unbounded in any direction.
+     *
+     * @return true if the box is infinite, false otherwise
+     */
+    public boolean isInfinite() {
+        return Double.isInfinite(minX) || Double.isInfinite(minY) || Double.isInfinite(minZ)
+                || Double.isInfinite(maxX) || Double.isInfinite(maxY) || Double.isInfinite(maxZ);
+    }
+
+    /**
+     * Checks (by the slab test) whether the ray passes through the box
+     * no further than the given distance from its head.
+     *
+     * @param ray         the ray to test
+     * @param maxDistance the maximum distance from the ray head
+     * @return true if the ray passes through the box, false otherwise
+     */
+    public boolean intersects(Ray ray, double maxDistance) {
+        return entryDistance(ray, maxDistance) != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Calculates (by the slab test) the distance from the ray head to the point where
+     * the ray enters the box. If the ray head is inside the box the distance is zero.
+     *
+     * @param ray         the ray to test
+     * @param maxDistance the maximum distance from the ray head
+     * @return the entry distance, or positive infinity if the ray misses the box
+     *         within the given distance
+     */
+    public double entryDistance(Ray ray, double maxDistance) {
+        return entryDistance(SlabRay.of(ray), maxDistance);
+    }
+
+    /**
+     * A ray prepared for the slab test - the coordinates of its head and the inverse of its direction,
+     * calculated once for testing the ray against many boxes
+     * @param x    x coordinate of the ray head
+     * @param y    y coordinate of the ray head
+     * @param z    z coordinate of the ray head
+     * @param invX inverse of the x coordinate of the ray direction
+     * @param invY inverse of the y coordinate of the ray direction
+     * @param invZ inverse of the z coordinate of the ray direction
+     */
+    record SlabRay(double x, double y, double z, double invX, double invY, double invZ) {
+        /**
+         * Prepares a ray for the slab test
+         * @param ray the ray
+         * @return the prepared ray
+         */
+        static SlabRay of(Ray ray) {
+            Double3 head = ray.getHead().getXYZ();
+            Double3 dir = ray.getDirection().getXYZ();
+            return new SlabRay(head.d1(), head.d2(), head.d3(), 1 / dir.d1(), 1 / dir.d2(), 1 / dir.d3());
+        }
+    }
+
+    /**
+     * The slab test of a prepared ray
+     *
+     * @param ray         the prepared ray
+     * @param maxDistance the maximum distance from the ray head
+     * @return the entry distance, or positive infinity if the ray misses the box
+     *         within the given distance
+     */
+    double entryDistance(SlabRay ray, double maxDistance) {
+        double tNear = 0, tFar = maxDistance;
+
+        // x slab
+        double t1 = (minX - ray.x) * ray.invX, t2 = (maxX - ray.x) * ray.invX;
+        if (ray.invX < 0) { double t = t1; t1 = t2; t2 = t; }
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
+        if (tNear > tFar) return Double.POSITIVE_INFINITY;
+
+        // y slab
+        t1 = (minY - ray.y) * ray.invY;
+        t2 = (maxY - ray.y) * ray.invY;
+        if (ray.invY < 0) { double t = t1; t1 = t2; t2 = t; }
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
+        if (tNear > tFar) return Double.POSITIVE_INFINITY;
+
+        // z slab
+        t1 = (minZ - ray.z) * ray.invZ;
+        t2 = (maxZ - ray.z) * ray.invZ;
+        if (ray.invZ < 0) { double t = t1; t1 = t2; t2 = t; }
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
+        return tNear > tFar ? Double.POSITIVE_INFINITY : tNear;
+    }
+
+    /**
+     * Checks (by the slab test) whether a prepared ray passes through the box
+     * no further than the given distance from its head.
+     *
+     * @param ray         the prepared ray
+     * @param maxDistance the maximum distance from the ray head
+     * @return true if the ray passes through the box, false otherwise
+     */
+    boolean intersects(SlabRay ray, double maxDistance) {
+        return entryDistance(ray, maxDistance) != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Calculates the surface area of the box.
+     *
+     * @return the surface area
+     */
+    public double surfaceArea() {
+        double dx = maxX - minX, dy = maxY - minY, dz = maxZ - minZ;
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    @Override
+    public String toString() {
+        return "box:(" + minX + "," + minY + "," + minZ + ")-(" + maxX + "," + maxY + "," + maxZ + ")";
+    }
+}
@@ -0,0 +1,389 @@
+package geometries;
+
+import geometries.Intersectable.Intersection;
+import primitives.*;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Bounding volume hierarchy (BVH) over a collection of geometries.
+ * The bounded geometries are organized in a binary tree of bounding boxes,
+ * built top-down by the surface area heuristic (SAH): each node is split where the expected
+ * cost of intersecting its two children is the lowest, or becomes a leaf if splitting doesn't pay.
+ * A ray skips every subtree whose box it misses.
+ * Unbounded geometries can't be put in a box, so they are tested for every ray.
+ */
+final class BoundingVolumeHierarchy {
+    /** Amount of centroid bins per axis for evaluating the split candidates */
+    private static final int BINS = 12;
+    /** Relative cost of testing a ray against a node's box */
+    private static final double TRAVERSAL_COST = 1;
+    /** Relative cost of intersecting a ray with a geometry */
+    private static final double INTERSECTION_COST = 2;
+    /** Maximum amount of geometries in a leaf, even if the SAH prefers not to split */
+    private static final int MAX_LEAF_SIZE = 8;
+
+    /**
+     * A node of the hierarchy - either an inner node with two children, or a leaf with geometries
+     * @param box        the bounding box of all the geometries in the subtree
+     * @param left       the left child (null for a leaf)
+     * @param right      the right child (null for a leaf)
+     * @param geometries the geometries of a leaf (null for an inner node)
+     */
+    private record Node(BoundingBox box, Node left, Node right, Intersectable[] geometries) {
+    }
+
+    /** The unbounded geometries, tested for every ray */
+    private final Intersectable[] unbounded;
+    /** The root of the tree, or null if there are no bounded geometries */
+    private final Node root;
+    /** Conservative bounding-box rejection - test each geometry's own box before intersecting it */
+    private final boolean cbr;
+
+    /**
+     * Builds the hierarchy over the geometries
+     * @param geometries the geometries
+     * @param cbr        true for testing the box of each geometry in a leaf before intersecting it
+     */
+    BoundingVolumeHierarchy(List<Intersectable> geometries, boolean cbr) {
+        this.cbr = cbr;
+        List<Intersectable> bounded = new ArrayList<>();
+        List<Intersectable> unboundedList = new ArrayList<>();
+        for (Intersectable geometry : geometries)
+            (geometry.getBoundingBox().isInfinite() ? unboundedList : bounded).add(geometry);
+        unbounded = unboundedList.toArray(new Intersectable[0]);
+        root = bounded.isEmpty() ? null : new Builder(bounded).build();
+    }
+
+    /**
+     * Top-down SAH builder of the tree, holding the data needed only during the build
+     */
+    private static final class Builder {
+        /** The bounded geometries */
+        private final Intersectable[] items;
+        /** The bounding boxes of the geometries */
+        private final BoundingBox[] boxes;
+        /** The centroids of the bounding boxes by axis */
+        private final double[][] centroids;
+        /** The geometry indices, reordered by the splits */
+        private final int[] order;
+
+        /**
+         * Prepares the build over the bounded geometries
+         * @param bounded the bounded geometries
+         */
+        Builder(List<Intersectable> bounded) {
+            int n = bounded.size();
+            items = bounded.toArray(new Intersectable[0]);
+            boxes = new BoundingBox[n];
+            centroids = new double[3][n];
+            order = new int[n];
+            for (int i = 0; i < n; ++i) {
+                BoundingBox b = boxes[i] = items[i].getBoundingBox();
+                centroids[0][i] = (b.minX + b.maxX) / 2;
+                centroids[1][i] = (b.minY + b.maxY) / 2;
+                centroids[2][i] = (b.minZ + b.maxZ) / 2;
+                order[i] = i;
+            }
+        }
+
+        /**
+         * Builds the tree
+         * @return the root node
+         */
+        Node build() { return build(0, items.length); }
+
+        /**
+         * Builds the subtree of the geometries order[start..end)
+         * @param start first index (included)
+         * @param end   last index (excluded)
+         * @return the root node of the subtree
+         */
+        private Node build(int start, int end) {
+            int n = end - start;
+            BoundingBox box = boxes[order[start]];
+            double[] cMin = { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY };
+            double[] cMax = { Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY };
+            for (int i = start; i < end; ++i) {
+                int item = order[i];
+                if (i != start) box = box.union(boxes[item]);
+                for (int axis = 0; axis < 3; ++axis) {
+                    cMin[axis] = Math.min(cMin[axis], centroids[axis][item]);
+                    cMax[axis] = Math.max(cMax[axis], centroids[axis][item]);
+                }
+            }
+            if (n == 1) return leaf(box, start, end);
+
+            // find the cheapest split among the bin borders of all the axes
+            double bestCost = Double.POSITIVE_INFINITY;
+            int bestAxis = -1, bestBin = -1;
+            for (int axis = 0; axis < 3; ++axis) {
+                double extent = cMax[axis] - cMin[axis];
+                if (extent <= 0) continue;
+                int[] counts = new int[BINS];
+                BoundingBox[] binBoxes = new BoundingBox[BINS];
+                for (int i = start; i < end; ++i) {
+                    int item = order[i];
+                    int bin = bin(centroids[axis][item], cMin[axis], extent);
+                    ++counts[bin];
+                    binBoxes[bin] = binBoxes[bin] == null ? boxes[item] : binBoxes[bin].union(boxes[item]);
+                }
+                // sweep from the right for the right-side areas, then from the left for the costs
+                double[] rightArea = new double[BINS];
+                int[] rightCount = new int[BINS];
+                BoundingBox accumulated = null;
+                int count = 0;
+                for (int bin = BINS - 1; bin > 0; --bin) {
+                    if (binBoxes[bin] != null)
+                        accumulated = accumulated == null ? binBoxes[bin] : accumulated.union(binBoxes[bin]);
+                    count += counts[bin];
+                    rightArea[bin] = accumulated == null ? 0 : accumulated.surfaceArea();
+                    rightCount[bin] = count;
+                }
+                accumulated = null;
+                count = 0;
+                for (int bin = 0; bin < BINS - 1; ++bin) {
+                    if (binBoxes[bin] != null)
+                        accumulated = accumulated == null ? binBoxes[bin] : accumulated.union(binBoxes[bin]);
+                    count += counts[bin];
+                    if (count == 0 || rightCount[bin + 1] == 0) continue;
+                    double cost = accumulated.surfaceArea() * count + rightArea[bin + 1] * rightCount[bin + 1];
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestAxis = axis;
+                        bestBin = bin;
+                    }
+                }
+            }
+
+            // all the centroids are at the same point - nothing to split by
+            if (bestAxis < 0) return leaf(box, start, end);
+            // SAH: split cost = traversal + intersection * (areaL * nL + areaR * nR) / area,
+            // compared to the leaf cost = intersection * n (both multiplied by the area)
+            double area = box.surfaceArea();
+            if (n <= MAX_LEAF_SIZE && TRAVERSAL_COST * area + INTERSECTION_COST * bestCost >= INTERSECTION_COST * n * area)
+                return leaf(box, start, end);
+
+            // partition the geometries by the chosen bin border
+            double extent = cMax[bestAxis] - cMin[bestAxis];
+            int mid = start;
+            for (int i = start; i < end; ++i)
+                if (bin(centroids[bestAxis][order[i]], cMin[bestAxis], extent) <= bestBin) {
+                    int temp = order[i];
+                    order[i] = order[mid];
+                    order[mid++] = temp;
+                }
+            return new Node(box, build(start, mid), build(mid, end), null);
+        }
+
+        /**
+         * Calculates the bin of a centroid coordinate
+         * @param centroid the centroid coordinate
+         * @param min      the minimal centroid coordinate in the node
+         * @param extent   the extent of the centroid coordinates in the node
+         * @return the bin index
+         */
+        private static int bin(double centroid, double min, double extent) {
+            int bin = (int) (BINS * (centroid - min) / extent);
+            return bin < BINS ? bin : BINS - 1;
+        }
+
+        /**
+         * Creates a leaf of the geometries order[start..end)
+         * @param box   the bounding box of the geometries
+         * @param start first index (included)
+         * @param end   last index (excluded)
+         * @return the leaf node
+         */
+        private Node leaf(BoundingBox box, int start, int end) {
+            Intersectable[] geometries = new Intersectable[end - start];
+            for (int i = start; i < end; ++i)
+                geometries[i - start] = items[order[i]];
+            return new Node(box, null, null, geometries);
+        }
+    }
+
+    /**
+     * Calculates the intersections of a ray with the geometries in the hierarchy
+     * @param ray         the ray
+     * @param maxDistance the maximum distance from the ray head
+     * @return the list of intersections, or null if there are none
+     */
+    List<Intersection> calculateIntersections(Ray ray, double maxDistance) {
+        List<Intersection> intersections = null;
+        for (Intersectable geometry : unbounded)
+            intersections = addAll(intersections, geometry.calculateIntersections(ray, maxDistance));
+        return root == null ? intersections
+                : calculateIntersections(root, ray, BoundingBox.SlabRay.of(ray), maxDistance, intersections);
+    }
+
+    /**
+     * Calculates the intersections of a ray with the geometries in a subtree
+     * @param node          the root of the subtree
+     * @param ray           the ray
+     * @param slabRay       the ray prepared for the box tests
+     * @param maxDistance   the maximum distance from the ray head
+     * @param intersections the intersections found so far (may be null)
+     * @return the intersections found so far, including the ones in the subtree
+     */
+    private List<Intersection> calculateIntersections(Node node, Ray ray, BoundingBox.SlabRay slabRay,
+                                                      double maxDistance, List<Intersection> intersections) {
+        if (!node.box.intersects(slabRay, maxDistance))
+            return intersections;
+        if (node.geometries != null) {
+            for (Intersectable geometry : node.geometries)
+                if (!cbr || geometry.getBoundingBox().intersects(slabRay, maxDistance))
+                    intersections = addAll(intersections, geometry.calculateIntersections(ray, maxDistance));
+            return intersections;
+        }
+        intersections = calculateIntersections(node.left, ray, slabRay, maxDistance, intersections);
+        return calculateIntersections(node.right, ray, slabRay, maxDistance, intersections);
+    }
+
+    /**
+     * The closest intersection found so far along a ray. Its distance is the limit for
+     * the rest of the search, so farther geometries and subtrees are skipped.
+     */
+    static final class ClosestHit {
+        /** The ray */
+        private final Ray ray;
+        /** The closest intersection found so far, null if there is none */
+        Intersection intersection = null;
+        /** The distance of the closest intersection (the maximum distance while there is none) */
+        double distance;
+
+        /**
+         * Starts a closest-hit search
+         * @param ray         the ray
+         * @param maxDistance the maximum distance from the ray head
+         */
+        ClosestHit(Ray ray, double maxDistance) {
+            this.ray = ray;
+            this.distance = maxDistance;
+        }
+
+        /**
+         * Looks for an intersection of the ray with a geometry closer than the closest one found so far
+         * @param geometry the geometry
+         */
+        void test(Intersectable geometry) {
+            Intersection candidate = geometry.calculateClosestIntersection(ray, distance);
+            if (candidate == null) return;
+            double candidateDistance = candidate.t;
+            if (candidateDistance < distance) {
+                intersection = candidate;
+                distance = candidateDistance;
+            }
+        }
+    }
+
+    /**
+     * Finds the intersection closest to the ray head among the geometries in the hierarchy.
+     * The children of each node are visited front to back, and a subtree is skipped
+     * if its box is entered beyond the closest intersection found so far.
+     * @param ray         the ray
+     * @param maxDistance the maximum distance from the ray head
+     * @return the closest intersection, or null if there are none
+     */
+    Intersection calculateClosestIntersection(Ray ray, double maxDistance) {
+        ClosestHit hit = new ClosestHit(ray, maxDistance);
+        for (Intersectable geometry : unbounded)
+            hit.test(geometry);
+        if (root != null) {
+            BoundingBox.SlabRay slabRay = BoundingBox.SlabRay.of(ray);
+            if (root.box.intersects(slabRay, hit.distance))
+                calculateClosestIntersection(root, slabRay, hit);
+        }
+        return hit.intersection;
+    }
+
+    /**
+     * Finds the closest intersection among the geometries in a subtree whose box is crossed by the ray
+     * @param node    the root of the subtree
+     * @param slabRay the ray prepared for the box tests
+     * @param hit     the closest intersection found so far
+     */
+    private void calculateClosestIntersection(Node node, BoundingBox.SlabRay slabRay, ClosestHit hit) {
+        if (node.geometries != null) {
+            for (Intersectable geometry : node.geometries)
+                if (!cbr || geometry.getBoundingBox().intersects(slabRay, hit.distance))
+                    hit.test(geometry);
+            return;
+        }
+        double leftEntry = node.left.box.entryDistance(slabRay, hit.distance);
+        double rightEntry = node.right.box.entryDistance(slabRay, hit.distance);
+        boolean leftFirst = leftEntry <= rightEntry;
+        Node near = leftFirst ? node.left : node.right, far = leftFirst ? node.right : node.left;
+        double nearEntry = Math.min(leftEntry, rightEntry), farEntry = Math.max(leftEntry, rightEntry);
+        if (nearEntry < hit.distance) calculateClosestIntersection(near, slabRay, hit);
+        // the near child may have shortened the search beyond the far child's box
+        if (farEntry < hit.distance) calculateClosestIntersection(far, slabRay, hit);
+    }
+
+    /**
+     * Calculates the transparency of the geometries in the hierarchy along a ray (occlusion query).
+     * The traversal stops as soon as the light is blocked completely.
+     * @param ray         the ray
+     * @param maxDistance the maximum distance from the ray head
+     * @return the product of the transparency coefficients of all the intersections
+     */
+    Double3 calculateTransparency(Ray ray, double maxDistance) {
+        Double3 ktr = Double3.ONE;
+        for (Intersectable geometry : unbounded) {
+            ktr = attenuate(ktr, geometry.calculateTransparency(ray, maxDistance));
+            if (ktr.equals(Double3.ZERO)) return Double3.ZERO;
+        }
+        return root == null ? ktr : calculateTransparency(root, ray, BoundingBox.SlabRay.of(ray), maxDistance, ktr);
+    }
+
+    /**
+     * Calculates the transparency of the geometries in a subtree along a ray
+     * @param node        the root of the subtree
+     * @param ray         the ray
+     * @param slabRay     the ray prepared for the box tests
+     * @param maxDistance the maximum distance from the ray head
+     * @param ktr         the transparency found so far
+     * @return the transparency found so far, including the subtree ({@link Double3#ZERO} once blocked)
+     */
+    private Double3 calculateTransparency(Node node, Ray ray, BoundingBox.SlabRay slabRay,
+                                          double maxDistance, Double3 ktr) {
+        if (!node.box.intersects(slabRay, maxDistance))
+            return ktr;
+        if (node.geometries != null) {
+            for (Intersectable geometry : node.geometries)
+                if (!cbr || geometry.getBoundingBox().intersects(slabRay, maxDistance)) {
+                    ktr = attenuate(ktr, geometry.calculateTransparency(ray, maxDistance));
+                    if (ktr.equals(Double3.ZERO)) return Double3.ZERO;
+                }
+            return ktr;
+        }
+        ktr = calculateTransparency(node.left, ray, slabRay, maxDistance, ktr);
+        return ktr.equals(Double3.ZERO) ? ktr : calculateTransparency(node.right, ray, slabRay, maxDistance, ktr);
+    }
+
+    /**
+     * Attenuates the transparency found so far by the transparency of a geometry
+     * @param ktr the transparency found so far
+     * @param kt  the transparency of the geometry
+     * @return the attenuated transparency
+     */
+    static Double3 attenuate(Double3 ktr, Double3 kt) {
+        return kt == Double3.ONE ? ktr : ktr.product(kt);
+    }
+
+    /**
+     * Adds the intersections of a geometry to the intersections found so far
+     * @param intersections the intersections found so far (may be null)
+     * @param found         the intersections of the geometry (may be null)
+     * @return the intersections found so far, including the new ones
+     */
+    private static List<Intersection> addAll(List<Intersection> intersections, List<Intersection> found) {
+        if (found == null) return intersections;
+        if (intersections == null) // we don't want to create a new list if there aren't any intersections
+            intersections = new LinkedList<>();
+        intersections.addAll(found);
+        return intersections;
+    }
+}
@@ -1,5 +1,6 @@
 package geometries;
 
+import primitives.Double3;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Util;
@@ -42,8 +43,39 @@ public class Circle extends RadialGeometry {
     @Override
     public List<Intersection> calculateIntersectionsHelper(Ray ray, double maxDistance) {
         List<Intersection> intersections = plane.calculateIntersections(ray, maxDistance);
-        if (intersections != null && Util.alignZero(center.distance(intersections.getFirst().point) - radius) < 0)
-            return List.of(new Intersection(this, intersections.getFirst().point, this.getMaterial()));
+        if (intersections == null) return null;
+        // the distance of the plane's intersection from the center, without creating the point
+        double t = intersections.getFirst().t;
+        Double3 head = ray.getHead().getXYZ(), direction = ray.getDirection().getXYZ(), c = center.getXYZ();
+        double x = head.d1() + t * direction.d1() - c.d1();
+        double y = head.d2() + t * direction.d2() - c.d2();
+        double z = head.d3() + t * direction.d3() - c.d3();
+        if (Util.alignZero(Math.sqrt(x * x + y * y + z * z) - radius) < 0)
+            return List.of(new Intersection(this, ray, t));
         return null;
     }
-}
\ No newline at end of file
+
+    @Override
+    protected BoundingBox calculateBoundingBox() {
+        return diskBoundingBox(center, radius, plane.getNormal());
+    }
+
+    /**
+     * Calculates the bounding box of a disk.
+     * The extent of the disk along each axis is radius * sqrt(1 - n^2),
+     * where n is the matching coordinate of the (unit) normal of the disk.
+     *
+     * @param center the center of the disk
+     * @param radius the radius of the disk
+     * @param normal the unit normal of the disk's plane
+     * @return the bounding box of the disk
+     */
+    static BoundingBox diskBoundingBox(Point center, double radius, Vector normal) {
+        Double3 c = center.getXYZ();
+        Double3 n = normal.getXYZ();
+        double ex = radius * Math.sqrt(Math.max(0, 1 - n.d1() * n.d1()));
+        double ey = radius * Math.sqrt(Math.max(0, 1 - n.d2() * n.d2()));
+        double ez = radius * Math.sqrt(Math.max(0, 1 - n.d3() * n.d3()));
+        return new BoundingBox(c.d1() - ex, c.d2() - ey, c.d3() - ez, c.d1() + ex, c.d2() + ey, c.d3() + ez);
+    }
+}
@@ -3,7 +3,6 @@ package geometries;
 import primitives.*;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 
@@ -23,16 +22,6 @@ public class Cylinder extends Tube{
      */
     protected final double height;
 
-    /**
-     * The bottom base of the cylinder, represented as a circle.
-     */
-    private final Circle bottomBase;
-
-    /**
-     * The top base of the cylinder, represented as a circle.
-     */
-    private final Circle topBase;
-
     /**
      * Constructs a Cylinder object with the specified radius, axis ray, and height.
      *
@@ -46,10 +35,6 @@ public class Cylinder extends Tube{
         if (height <= 0)
             throw new ArithmeticException("height needs to be positive");
         this.height = height;
-        Point baseCenter = axis.getHead();
-        bottomBase = new Circle(baseCenter, radius, getNormal(baseCenter));
-        Point topCenter = baseCenter.add(axis.getDirection().scale(height));
-        topBase = new Circle(topCenter, radius, getNormal(topCenter));
     }
 
     /**
@@ -66,8 +51,6 @@ public class Cylinder extends Tube{
         if (axisHead.equals(axisTail))
             throw new ArithmeticException("Axis head and tail cannot be the same point");
         height = axisHead.distance(axisTail);
-        bottomBase = new Circle(axisHead, radius, getNormal(axisTail));
-        topBase = new Circle(axisTail, radius, getNormal(axisTail));
     }
 
     /**
@@ -104,50 +87,76 @@ public class Cylinder extends Tube{
     /**
      * Calculates the intersections between a ray and the cylinder.
      * This method checks for intersections with the cylinder's surface and its two bases.
+     * The bases are intersected directly by the distances along the ray to their planes,
+     * so no object is created unless there is an intersection.
      * @param maxDistance - the maximum distance from the ray's head to consider for intersection
      * @param ray the ray to check for intersections
      * @return a list of intersection points, or null if there are no intersections
      */
     @Override
     public List<Intersection> calculateIntersectionsHelper(Ray ray, double maxDistance) {
-        Point baseCenter = axis.getHead();
-        List<Intersection> intersections = null;
-        var list = super.calculateIntersectionsHelper(ray, maxDistance);
-        if (list != null)
-            for (Intersection intersection : list) {
-                double distance = Util.alignZero(intersection.point.subtract(baseCenter).dotProduct(axis.getDirection()));
-                if (distance > 0 && Util.alignZero(distance - height) < 0) {
-                    if (intersections == null)
-                        intersections = new LinkedList<>();
-                    intersections.add(new Intersection(this, intersection.point, this.getMaterial()));
-                }
-            }
+        List<Intersection> intersections = lateralIntersections(ray, maxDistance, height);
+
+        Double3 direction = ray.getDirection().getXYZ(), head = ray.getHead().getXYZ();
+        double dx = direction.d1(), dy = direction.d2(), dz = direction.d3();
+        double dv = dx * vx + dy * vy + dz * vz;
+        if (isZero(dv)) return intersections; // the ray is parallel to the bases
+
+        double hx = head.d1() - ax, hy = head.d2() - ay, hz = head.d3() - az;
+        double hv = hx * vx + hy * vy + hz * vz;
 
         // Check intersection with the bottom base
-        intersections = getIntersections(ray, bottomBase, intersections, maxDistance);
+        intersections = baseIntersection(ray, -hv / dv, maxDistance, hx, hy, hz, dx, dy, dz, intersections);
 
         // Check intersection with top base
-        intersections = getIntersections(ray, topBase, intersections, maxDistance);
+        intersections = baseIntersection(ray, (height - hv) / dv, maxDistance, hx, hy, hz, dx, dy, dz, intersections);
 
         return intersections;
     }
 
     /**
-     * A helper method to calculate intersections between a ray and a circular base of the cylinder.
+     * A helper method to add the intersection between a ray and a base of the cylinder, given the distance
+     * along the ray to the plane of the base - if it is in front of the ray's head, within the maximum distance
+     * and inside the base's circle.
      *
      * @param ray            the ray to intersect
-     * @param circle         the circular base (either bottom or top)
+     * @param t              the distance along the ray to the plane of the base
+     * @param maxDistance    the maximum allowed distance from the ray's origin to an intersection point
+     * @param hx             x of the vector from the axis's head to the ray's head
+     * @param hy             y of the vector from the axis's head to the ray's head
+     * @param hz             z of the vector from the axis's head to the ray's head
+     * @param dx             x of the ray's direction
+     * @param dy             y of the ray's direction
+     * @param dz             z of the ray's direction
      * @param intersections  the existing list of intersections
-     * @param maxDistance the maximum allowed distance from the ray's origin to an intersection point
-     * @return an updated list of intersections including any new intersection with the given circle
+     * @return an updated list of intersections including any new intersection with the given base
      */
-    private List<Intersection> getIntersections(Ray ray, Circle circle, List<Intersection> intersections, double maxDistance) {
-        var list = circle.calculateIntersections(ray, maxDistance);
-        if (list != null) {
-            if (intersections == null)
-                intersections = new LinkedList<>();
-            intersections.add(new Intersection(this, list.getFirst().point, this.getMaterial()));
-        }
+    private List<Intersection> baseIntersection(Ray ray, double t, double maxDistance,
+                                                double hx, double hy, double hz,
+                                                double dx, double dy, double dz,
+                                                List<Intersection> intersections) {
+        if (alignZero(t) <= 0 || alignZero(t - maxDistance) > 0) return intersections;
+        // the vector from the axis to the point, orthogonal to the axis
+        double px = hx + t * dx, py = hy + t * dy, pz = hz + t * dz;
+        double pv = px * vx + py * vy + pz * vz;
+        px -= pv * vx;
+        py -= pv * vy;
+        pz -= pv * vz;
+        if (alignZero(Math.sqrt(px * px + py * py + pz * pz) - radius) >= 0) return intersections;
+        if (intersections == null) intersections = new ArrayList<>(2);
+        intersections.add(new Intersection(this, ray, t));
         return intersections;
     }
+
+    /**
+     * Calculates the bounding box of the cylinder as the union of the boxes of its two bases.
+     *
+     * @return the bounding box of the cylinder
+     */
+    @Override
+    protected BoundingBox calculateBoundingBox() {
+        Point topCenter = axis.getPoint(height);
+        return Circle.diskBoundingBox(axis.getHead(), radius, axis.getDirection())
+                .union(Circle.diskBoundingBox(topCenter, radius, axis.getDirection()));
+    }
 }
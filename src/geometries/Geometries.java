@@ -1,6 +1,7 @@
 package geometries;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import primitives.*;
@@ -13,6 +14,24 @@ public class Geometries {
 
     List<Intersectable> geometries = new LinkedList<>();
 
+    /**
+     * Bounding volume hierarchy over the geometries.
+     * It is built on the first intersection query (usually the first render) and dropped
+     * whenever geometries are added, so the next query rebuilds it.
+     */
+    private volatile BoundingVolumeHierarchy hierarchy = null;
+
+    /**
+     * Flag of using the bounding volume hierarchy for finding intersections (default - true)
+     */
+    private boolean bvh = true;
+
+    /**
+     * Flag of conservative bounding-box rejection (CBR) - a cheap test of the ray against
+     * each geometry's bounding box before calculating the full intersection (default - true)
+     */
+    private boolean cbr = true;
+
     /**
      * Constructor for Geometries class.
      * Initializes the collection with the given geometries.
@@ -37,6 +56,59 @@ public class Geometries {
      */
     public void add(Intersectable ... geometries) {
         this.geometries.addAll(Arrays.asList(geometries));
+        hierarchy = null;
+    }
+
+    /**
+     * Sets whether to use the bounding volume hierarchy for finding intersections.
+     *
+     * @param bvh true for using the hierarchy, false for testing all the geometries one by one
+     * @return the collection itself
+     */
+    public Geometries setBVH(boolean bvh) {
+        this.bvh = bvh;
+        return this;
+    }
+
+    /**
+     * Sets the conservative bounding-box rejection (CBR) mode.
+     * In this mode the ray is tested against the bounding box of each geometry (by the slab test)
+     * before the full intersection is calculated, and the geometry is skipped if the box is missed.
+     * The test never rejects a real intersection.
+     *
+     * @param cbr true for turning the CBR on
+     * @return the collection itself
+     */
+    public Geometries setCBR(boolean cbr) {
+        this.cbr = cbr;
+        hierarchy = null;
+        return this;
+    }
+
+    /**
+     * Returns the bounding box of all the geometries in the collection.
+     *
+     * @return the bounding box, {@link BoundingBox#INFINITE} if any geometry is unbounded,
+     *         or null if the collection is empty
+     */
+    public BoundingBox getBoundingBox() {
+        BoundingBox box = null;
+        for (Intersectable geometry : geometries) {
+            BoundingBox b = geometry.getBoundingBox();
+            if (b.isInfinite()) return BoundingBox.INFINITE;
+            box = box == null ? b : box.union(b);
+        }
+        return box;
+    }
+
+    /**
+     * Returns the geometries in the collection.
+     * Used by acceleration structures which are built over the collection.
+     *
+     * @return an unmodifiable view of the geometries
+     */
+    public List<Intersectable> getGeometries() {
+        return Collections.unmodifiableList(geometries);
     }
 
     /**
@@ -46,12 +118,17 @@ public class Geometries {
      * @return A list of intersection points.
      */
     public List<Intersectable.Intersection> calculateIntersectionsHelper(Ray ray, double maxDistance) {
+        if (bvh) return getHierarchy().calculateIntersections(ray, maxDistance);
+
         // Implementation for finding intersections
         List<Intersectable.Intersection> intersections = null;
         boolean flag = false;
         List<Intersectable.Intersection> temp;
+        BoundingBox.SlabRay slabRay = cbr ? BoundingBox.SlabRay.of(ray) : null;
 
         for (Intersectable geometry : geometries) {
+            // conservative bounding-box rejection - skip the full calculation if the ray misses the box
+            if (cbr && !geometry.getBoundingBox().intersects(slabRay, maxDistance)) continue;
             temp = geometry.calculateIntersections(ray, maxDistance);
             if (temp != null) {
                 if (!flag) {  // we don't want to create a new list if there aren't any intersections
@@ -65,6 +142,68 @@ public class Geometries {
         return intersections;
     }
 
+    /**
+     * Finds the intersection closest to the ray's head (closest-hit query).
+     * The distance of the closest intersection found so far is passed to the following geometries
+     * as their maximum distance, so farther geometries are pruned, and no list of intersections is built.
+     *
+     * @param ray The ray to check for intersections.
+     * @param maxDistance The maximum distance from the ray's head.
+     * @return The closest intersection, or null if there are no intersections.
+     */
+    public Intersectable.Intersection calculateClosestIntersection(Ray ray, double maxDistance) {
+        if (bvh) return getHierarchy().calculateClosestIntersection(ray, maxDistance);
+
+        BoundingVolumeHierarchy.ClosestHit hit = new BoundingVolumeHierarchy.ClosestHit(ray, maxDistance);
+        BoundingBox.SlabRay slabRay = cbr ? BoundingBox.SlabRay.of(ray) : null;
+        for (Intersectable geometry : geometries) {
+            if (cbr && !geometry.getBoundingBox().intersects(slabRay, hit.distance)) continue;
+            hit.test(geometry);
+        }
+        return hit.intersection;
+    }
+
+    /**
+     * Calculates how much light passes through the geometries along a ray (occlusion query) -
+     * the product of the transparency coefficients (kt) of all the intersections within maxDistance.
+     * Unlike {@link #calculateIntersectionsHelper(Ray, double)} it doesn't build a list of the intersections,
+     * and it stops at the first hit which blocks the light completely (kt of zero).
+     *
+     * @param ray The shadow ray.
+     * @param maxDistance The maximum distance from the ray's head (the distance to the light source).
+     * @return The transparency along the ray, {@link Double3#ZERO} if the ray is blocked.
+     */
+    public Double3 calculateTransparency(Ray ray, double maxDistance) {
+        if (bvh) return getHierarchy().calculateTransparency(ray, maxDistance);
+
+        Double3 ktr = Double3.ONE;
+        BoundingBox.SlabRay slabRay = cbr ? BoundingBox.SlabRay.of(ray) : null;
+        for (Intersectable geometry : geometries) {
+            if (cbr && !geometry.getBoundingBox().intersects(slabRay, maxDistance)) continue;
+            ktr = BoundingVolumeHierarchy.attenuate(ktr, geometry.calculateTransparency(ray, maxDistance));
+            if (ktr.equals(Double3.ZERO)) return Double3.ZERO;
+        }
+        return ktr;
+    }
+
+    /**
+     * Returns the bounding volume hierarchy over the geometries, building it if needed.
+     * The rendering threads may query the collection concurrently, so only one of them builds it.
+     *
+     * @return the bounding volume hierarchy
+     */
+    private BoundingVolumeHierarchy getHierarchy() {
+        BoundingVolumeHierarchy current = hierarchy;
+        if (current == null) {
+            synchronized (this) {
+                current = hierarchy;
+                if (current == null)
+                    hierarchy = current = new BoundingVolumeHierarchy(geometries, cbr);
+            }
+        }
+        return current;
+    }
+
     /**
      * Finds intersections between a ray and the geometries in the collection.
      * @param ray The ray to check for intersections.
@@ -68,4 +68,16 @@ public abstract class Geometry extends Intersectable {
         this.material = material;
         return this;
     }
+
+    /**
+     * An opaque geometry blocks the light completely if the ray hits it anywhere,
+     * so only an any-hit query is needed - the geometries with a cheaper any-hit test
+     * (such as spheres, planes, polygons and triangles) don't build a list of the intersections.
+     */
+    @Override
+    public Double3 calculateTransparency(Ray ray, double maxDistance) {
+        if (material.kt.equals(Double3.ZERO))
+            return hasIntersections(ray, maxDistance) ? Double3.ZERO : Double3.ONE;
+        return super.calculateTransparency(ray, maxDistance);
+    }
 }
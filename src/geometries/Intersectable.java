@@ -1,5 +1,4 @@
 package geometries;
-import lighting.LightSource;
 import primitives.*;
 import java.util.List;
 /**
@@ -13,6 +12,11 @@ public abstract class Intersectable {
      */
     Intersectable() {}
 
+    /**
+     * The bounding box of the geometry, calculated once on demand
+     */
+    private BoundingBox boundingBox = null;
+
     /**
      * Finds the intersections between a given ray and the geometry.
      * @param maxDistance - the maximum distance between the intersection point and the ray head.
@@ -21,7 +25,7 @@ public abstract class Intersectable {
      */
     public final List<Point> findIntersections(Ray ray, double maxDistance) {
         var list = calculateIntersections(ray, maxDistance);
-        return list == null ? null : list.stream().map(intersection -> intersection.point).toList();
+        return list == null ? null : list.stream().map(Intersection::getPoint).toList();
     }
 
     /**
@@ -32,12 +36,14 @@ public abstract class Intersectable {
      */
     public final List<Point> findIntersections(Ray ray) {
         var list = calculateIntersections(ray, Double.POSITIVE_INFINITY);
-        return list == null ? null : list.stream().map(intersection -> intersection.point).toList();
+        return list == null ? null : list.stream().map(Intersection::getPoint).toList();
     }
 
     /**
      * The Intersection class represents the intersection of a ray with a geometry.
-     * It contains information about the geometry, the intersection point, and the material properties.
+     * It is a compact hit record - the geometry and the distance along the ray, and the intersection
+     * point is calculated (once) on demand, since most of the intersections found are discarded
+     * without needing it. The shading of an intersection is calculated by the ray tracers.
      */
     public static class Intersection {
         /**
@@ -45,61 +51,50 @@ public abstract class Intersectable {
          */
         public final Geometry geometry;
         /**
-         * intersection point
-         */
-        public final Point point;
-
-        /**
-         * material of intersection point
-         */
-        public final Material material;
-        /**
-         * normal vector at the intersection point
-         */
-        public Vector normal;
-        /**
-         * view vector at the intersection point
-         */
-        public Vector v;
-        /**
-         * scalar product of the view vector and the normal vector
-         */
-        public double vNormal;
-        /**
-         * light source at the intersection point
+         * the intersecting ray
          */
-        public LightSource light;
+        public final Ray ray;
         /**
-         * vector from light source to the intersection point
+         * distance of the intersection point from the ray's head
          */
-        public Vector l;
+        public final double t;
         /**
-         * scalar product of the light vector and the normal vector
+         * intersection point, calculated on demand
          */
-        public double lNormal;
-
+        private Point point = null;
 
         /**
          * Constructor for the Intersection class.
          *
          * @param geometry the geometry where the intersection occurs
-         * @param point    the intersection point
-         * @param material the material of the geometry
+         * @param ray      the intersecting ray
+         * @param t        the distance of the intersection point from the ray's head
          */
-        public Intersection(Geometry geometry, Point point, Material material) {
+        public Intersection(Geometry geometry, Ray ray, double t) {
             this.geometry = geometry;
-            this.point = point;
-            this.material = material;
+            this.ray = ray;
+            this.t = t;
+        }
+
+        /**
+         * Returns the intersection point, calculating it on the first call
+         *
+         * @return the intersection point
+         */
+        public Point getPoint() {
+            if (point == null)
+                point = ray.getPoint(t);
+            return point;
         }
 
         @Override
         public String toString() {
-            return "Intersection:geometry=" + geometry + ", point=" + point;
+            return "Intersection:geometry=" + geometry + ", point=" + getPoint();
         }
 
         @Override
         public boolean equals(Object obj) {
-            return obj instanceof Intersection other && geometry==other.geometry && this.point.equals(other.point);
+            return obj instanceof Intersection other && geometry==other.geometry && getPoint().equals(other.getPoint());
         }
 
 
@@ -139,4 +134,77 @@ public abstract class Intersectable {
         return calculateIntersectionsHelper(ray, Double.POSITIVE_INFINITY);
     }
 
+    /**
+     * Checks whether a ray intersects the geometry (any-hit query).
+     * Geometries may override this method with a test cheaper than calculating the intersections.
+     *
+     * @param ray the ray to check for intersections
+     * @param maxDistance the maximum distance between the ray head and the intersection point
+     * @return true if there is at least one intersection within the distance
+     */
+    public boolean hasIntersections(Ray ray, double maxDistance) {
+        return calculateIntersectionsHelper(ray, maxDistance) != null;
+    }
+
+    /**
+     * Finds the intersection closest to the ray head (closest-hit query).
+     * Geometries may override this method with a calculation cheaper than finding all the intersections.
+     *
+     * @param ray the ray to check for intersections
+     * @param maxDistance the maximum distance between the ray head and the intersection point
+     * @return the closest intersection within the distance, or null if there are no intersections
+     */
+    public Intersection calculateClosestIntersection(Ray ray, double maxDistance) {
+        List<Intersection> intersections = calculateIntersectionsHelper(ray, maxDistance);
+        if (intersections == null) return null;
+        Intersection closest = null;
+        double minDistance = Double.POSITIVE_INFINITY;
+        for (Intersection intersection : intersections) {
+            if (intersection.t < minDistance) {
+                minDistance = intersection.t;
+                closest = intersection;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Calculates how much light passes through the geometry along a ray (occlusion query) -
+     * the product of the transparency coefficients (kt) of all the intersections within the distance.
+     *
+     * @param ray the ray (usually a shadow ray towards a light source)
+     * @param maxDistance the maximum distance between the ray head and the intersection point
+     * @return the transparency along the ray, {@link Double3#ONE} if there are no intersections
+     */
+    public Double3 calculateTransparency(Ray ray, double maxDistance) {
+        List<Intersection> intersections = calculateIntersectionsHelper(ray, maxDistance);
+        if (intersections == null) return Double3.ONE;
+        Double3 ktr = Double3.ONE;
+        for (Intersection intersection : intersections)
+            ktr = ktr.product(intersection.geometry.getMaterial().kt);
+        return ktr;
+    }
+
+    /**
+     * Returns the axis-aligned bounding box of the geometry.
+     * The box is calculated on the first call and cached, because geometries are immutable.
+     *
+     * @return the bounding box, or {@link BoundingBox#INFINITE} if the geometry is unbounded
+     */
+    public final BoundingBox getBoundingBox() {
+        if (boundingBox == null)
+            boundingBox = calculateBoundingBox();
+        return boundingBox;
+    }
+
+    /**
+     * Calculates the axis-aligned bounding box of the geometry.
+     * By default a geometry is considered unbounded, bounded geometries override this method.
+     *
+     * @return the bounding box of the geometry
+     */
+    protected BoundingBox calculateBoundingBox() {
+        return BoundingBox.INFINITE;
+    }
+
 }
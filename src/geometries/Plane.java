@@ -59,21 +59,34 @@ public class Plane extends Geometry {
      */
     @Override
     public List<Intersection> calculateIntersectionsHelper(Ray ray, double maxDistance) {
+        double t = intersectionDistance(ray, maxDistance);
+        return Double.isNaN(t) ? null : List.of(new Intersection(this, ray, t));
+    }
+
+    @Override
+    public boolean hasIntersections(Ray ray, double maxDistance) {
+        return !Double.isNaN(intersectionDistance(ray, maxDistance));
+    }
+
+    /**
+     * Calculates the distance along the ray to its intersection with the plane
+     * @param ray the ray
+     * @param maxDistance the maximum distance from the ray's head to consider for intersection
+     * @return the distance, or NaN if there is no intersection within the maximum distance
+     */
+    private double intersectionDistance(Ray ray, double maxDistance) {
         double denominator = normal.dotProduct(ray.getDirection());
         if(point.equals(ray.getHead())) {
-            return null; // The ray starts on the plane
+            return Double.NaN; // The ray starts on the plane
         }
         double numerator = normal.dotProduct(point.subtract(ray.getHead()));
         if(Util.isZero(denominator)) {
-            return null; // The ray is in the plane
+            return Double.NaN; // The ray is in the plane
         }
         double t = numerator/denominator;
-        if(!Util.compareSign(t,1) ||
-                Util.alignZero(ray.getPoint(t).distanceSquared(ray.getHead()) -
-                        maxDistance*maxDistance) > 0) {
-            return null; // The ray points away from it
+        if(!Util.compareSign(t,1) || Util.alignZero(t - maxDistance) > 0) {
+            return Double.NaN; // The ray points away from it
         }
-
-        return List.of(new Intersection(this, ray.getPoint(t), getMaterial()));
+        return t;
     }
 }
\ No newline at end of file
@@ -16,6 +16,20 @@ public class Polygon extends Geometry {
    protected final Plane       plane;
    /** The size of the polygon - the amount of the vertices in the polygon */
    private final int           size;
+   /** The unit normal of the polygon's plane */
+   private final double        nx, ny, nz;
+   /** The dot product of the normal with the points of the polygon's plane */
+   private final double        offset;
+   /**
+    * The axes (0 - x, 1 - y, 2 - z) of the projection of the polygon onto the coordinate plane
+    * it is the most parallel to - the axis along the dominant component of the normal is dropped
+    */
+   private final int           uAxis, wAxis;
+   /**
+    * The equations a*u + b*w + c of the projected edges - the signed distance of a projected point
+    * from the edge line, positive inside the polygon
+    */
+   private final double[]      edgeA, edgeB, edgeC;
 
    /**
     * Polygon constructor based on vertices list. The list must be ordered by edge
@@ -48,9 +62,42 @@ public class Polygon extends Geometry {
       // polygon with this plane.
       // The plane holds the invariant normal (orthogonal unit) vector to the polygon
       plane         = new Plane(vertices[0], vertices[1], vertices[2]);
+      Vector  n        = plane.getNormal(vertices[0]);
+
+      // Precompute the plane equation and the projected edges for the intersections
+      Double3 normal = n.getXYZ(), first = vertices[0].getXYZ();
+      nx            = normal.d1();
+      ny            = normal.d2();
+      nz            = normal.d3();
+      offset        = nx * first.d1() + ny * first.d2() + nz * first.d3();
+      double absX = Math.abs(nx), absY = Math.abs(ny), absZ = Math.abs(nz);
+      int dropped = absX >= absY && absX >= absZ ? 0 : absY >= absZ ? 1 : 2;
+      uAxis         = dropped == 0 ? 1 : 0;
+      wAxis         = dropped == 2 ? 1 : 2;
+      edgeA         = new double[size];
+      edgeB         = new double[size];
+      edgeC         = new double[size];
+      double area = 0;
+      for (int i = 0; i < size; ++i) {
+         Double3 from = vertices[i].getXYZ(), to = vertices[(i + 1) % size].getXYZ();
+         double u0 = coordinate(from, uAxis), w0 = coordinate(from, wAxis);
+         double u1 = coordinate(to, uAxis), w1 = coordinate(to, wAxis);
+         double length = Math.sqrt((u1 - u0) * (u1 - u0) + (w1 - w0) * (w1 - w0));
+         edgeA[i] = (w0 - w1) / length;
+         edgeB[i] = (u1 - u0) / length;
+         edgeC[i] = -(edgeA[i] * u0 + edgeB[i] * w0);
+         area += u0 * w1 - u1 * w0;
+      }
+      // the edges of a clockwise projection have the polygon on their negative side
+      if (area < 0)
+         for (int i = 0; i < size; ++i) {
+            edgeA[i] = -edgeA[i];
+            edgeB[i] = -edgeB[i];
+            edgeC[i] = -edgeC[i];
+         }
+
       if (size == 3) return; // no need for more tests for a Triangle
 
-      Vector  n        = plane.getNormal(vertices[0]);
       // Subtracting any subsequent points will throw an IllegalArgumentException
       // because of Zero Vector if they are in the same point
       Vector  edge1    = vertices[size - 1].subtract(vertices[size - 2]);
@@ -79,27 +126,60 @@ public class Polygon extends Geometry {
    @Override
    public Vector getNormal(Point point) { return plane.getNormal(point); }
 
+   /**
+    * Intersects the ray with the polygon's plane by a single plane equation, and tests the
+    * projection of the intersection against the precomputed projected edges - the
+    * intersection point is created only if it is inside the polygon
+    */
    @Override
    public List<Intersection> calculateIntersectionsHelper(Ray ray, double maxDistance) {
-      List<Point> intersections = plane.findIntersections(ray);
-      if (intersections == null) {
-         return null; // The ray is parallel to the plane
-      }
+      double t = intersectionDistance(ray, maxDistance);
+      return Double.isNaN(t) ? null : List.of(new Intersection(this, ray, t));
+   }
 
-      Vector n1 = vertices.get(0).subtract(ray.getHead())
-              .crossProduct(vertices.get(1).subtract(ray.getHead()));
-      double si = ray.getDirection().dotProduct(n1);
-      for(int i = 1; i < vertices.size(); i++) {
-         Vector normal = vertices.get(i).subtract(ray.getHead())
-                 .crossProduct(vertices.get((i + 1) % vertices.size()).subtract(ray.getHead()));
-         if(alignZero(ray.getDirection().dotProduct(normal)*si) <= 0 ) {
-            return null;
-         }
-      }
-      Point point = intersections.getFirst();
-      if(alignZero(point.distanceSquared(ray.getHead()) - maxDistance * maxDistance) >= 0) {
-         return null; // The intersection point is too far
-      }
-      return  List.of(new Intersection(this, point, getMaterial()));
+   @Override
+   public boolean hasIntersections(Ray ray, double maxDistance) {
+      return !Double.isNaN(intersectionDistance(ray, maxDistance));
    }
+
+   /**
+    * Calculates the distance along the ray to its intersection with the polygon
+    * @param  ray         the ray
+    * @param  maxDistance the maximum distance from the ray's head to consider for intersection
+    * @return             the distance, or NaN if there is no intersection within the maximum distance
+    */
+   private double intersectionDistance(Ray ray, double maxDistance) {
+      Double3 direction = ray.getDirection().getXYZ(), head = ray.getHead().getXYZ();
+      double denominator = nx * direction.d1() + ny * direction.d2() + nz * direction.d3();
+      if (isZero(denominator)) return NaN; // The ray is parallel to the plane
+
+      double t = (offset - (nx * head.d1() + ny * head.d2() + nz * head.d3())) / denominator;
+      if (alignZero(t) <= 0) return NaN; // The ray points away from the plane or starts on it
+      if (alignZero(t - maxDistance) >= 0) return NaN; // The intersection point is too far
+
+      double u = coordinate(head, uAxis) + t * coordinate(direction, uAxis);
+      double w = coordinate(head, wAxis) + t * coordinate(direction, wAxis);
+      for (int i = 0; i < size; ++i)
+         if (alignZero(edgeA[i] * u + edgeB[i] * w + edgeC[i]) <= 0)
+            return NaN; // The intersection point is outside the polygon or on its edge
+
+      return t;
+   }
+
+   /**
+    * Selects a coordinate of a triad
+    * @param  xyz  the triad
+    * @param  axis the axis of the coordinate (0 - x, 1 - y, 2 - z)
+    * @return      the coordinate
+    */
+   private static double coordinate(Double3 xyz, int axis) {
+      return switch (axis) {
+         case 0 -> xyz.d1();
+         case 1 -> xyz.d2();
+         default -> xyz.d3();
+      };
+   }
+
+   @Override
+   protected BoundingBox calculateBoundingBox() { return new BoundingBox(vertices.toArray(new Point[0])); }
 }
@@ -65,9 +65,9 @@ public class Sphere extends RadialGeometry{
 
 
         // distance between ray head and first intersection point
-        double t1 = ray.getPoint(tm - th).distance(ray.getHead());
+        double t1 = tm - th;
         // distance between ray head and second intersection point
-        double t2 = Util.alignZero(ray.getPoint(tm + th).distance(ray.getHead()));
+        double t2 = Util.alignZero(tm + th);
 
         /**The compareSign method has a bug - it doesn't take into account the fixed accuracy in Util,
          so I had to use the alignZero method to cover the case of zero
@@ -75,25 +75,57 @@ public class Sphere extends RadialGeometry{
         if(!Util.compareSign(Util.alignZero(tm - th),1)) {
             if(!Util.compareSign(Util.alignZero(tm + th),1) || Util.alignZero(t2 - maxDistance)>0)
                 return null; // no intersection
-            return List.of(new Intersection(this, ray.getPoint(tm + th), getMaterial()));
+            return List.of(new Intersection(this, ray, tm + th));
         }
         if(!Util.compareSign(Util.alignZero(tm + th),1) ) {
             if(!Util.compareSign(Util.alignZero(tm - th),1) || Util.alignZero(t1 - maxDistance)>0)
                 return null; // no intersection
-            return List.of(new Intersection(this, ray.getPoint(tm - th), getMaterial()));
+            return List.of(new Intersection(this, ray, tm - th));
         }
         List <Intersection> intersections = null;
         if(Util.alignZero(t1 - maxDistance) <= 0 && Util.alignZero(t2 - maxDistance) <= 0) {
-            intersections = List.of(new Intersection(this, ray.getPoint(tm - th), getMaterial()),
-                    new Intersection(this, ray.getPoint(tm + th), getMaterial()));
+            intersections = List.of(new Intersection(this, ray, tm - th),
+                    new Intersection(this, ray, tm + th));
         }
         else if(Util.alignZero(t1 - maxDistance) <= 0) {
-            intersections = List.of(new Intersection(this, ray.getPoint(tm - th), getMaterial()));
+            intersections = List.of(new Intersection(this, ray, tm - th));
         }
         else if(Util.alignZero(t2 - maxDistance) <= 0) {
-            intersections = List.of(new Intersection(this, ray.getPoint(tm + th), getMaterial()));
+            intersections = List.of(new Intersection(this, ray, tm + th));
         }
 
         return intersections;
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks whether the ray intersects the sphere, solving for the distances along the ray on doubles -
+     * true as soon as one of them is in front of the ray's head and within the maximum distance
+     */
+    @Override
+    public boolean hasIntersections(Ray ray, double maxDistance) {
+        Double3 c = center.getXYZ(), head = ray.getHead().getXYZ(), direction = ray.getDirection().getXYZ();
+        double ux = c.d1() - head.d1(), uy = c.d2() - head.d2(), uz = c.d3() - head.d3();
+        double tm = ux * direction.d1() + uy * direction.d2() + uz * direction.d3();
+        double d = Math.sqrt(Util.alignZero(ux * ux + uy * uy + uz * uz - tm * tm));
+        if (d >= radius) return false;
+        double th = Math.sqrt(radius * radius - d * d);
+        return isAccepted(tm - th, maxDistance) || isAccepted(tm + th, maxDistance);
+    }
+
+    /**
+     * Checks whether a distance along the ray is in front of the ray's head and within the maximum distance
+     * @param t the distance
+     * @param maxDistance the maximum distance
+     * @return true if the distance is accepted
+     */
+    private static boolean isAccepted(double t, double maxDistance) {
+        return Util.alignZero(t) > 0 && Util.alignZero(t - maxDistance) <= 0;
+    }
+
+    @Override
+    protected BoundingBox calculateBoundingBox() {
+        Double3 c = center.getXYZ();
+        return new BoundingBox(c.d1() - radius, c.d2() - radius, c.d3() - radius,
+                c.d1() + radius, c.d2() + radius, c.d3() + radius);
+    }
+}
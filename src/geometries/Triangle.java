@@ -8,6 +8,13 @@ import java.util.List;
  * that represent its vertices. It is a convex(קמור) polygon and lies in a single plane.
  */
 public class Triangle extends Polygon {
+    /** The first vertex of the triangle - the common vertex of the two edges */
+    private final double x0, y0, z0;
+    /** The first edge of the triangle - from the first vertex to the second one */
+    private final double e1x, e1y, e1z;
+    /** The second edge of the triangle - from the first vertex to the third one */
+    private final double e2x, e2y, e2z;
+
     /**
      * Constructs a Triangle object based on three points.
      * A triangle is a specialized polygon with exactly three vertices.
@@ -18,77 +25,71 @@ public class Triangle extends Polygon {
      */
     public Triangle(Point p1, Point p2, Point p3) {
         super(p1, p2, p3); // Call the superclass constructor
+        Double3 v0 = p1.getXYZ(), v1 = p2.getXYZ(), v2 = p3.getXYZ();
+        x0 = v0.d1();
+        y0 = v0.d2();
+        z0 = v0.d3();
+        e1x = v1.d1() - x0;
+        e1y = v1.d2() - y0;
+        e1z = v1.d3() - z0;
+        e2x = v2.d1() - x0;
+        e2y = v2.d2() - y0;
+        e2z = v2.d3() - z0;
     }
 
 
     /**
      * Returns the intersection point of the ray with triangle (if there is).
-     * The function uses the barycentric coordinate algorithm to determine if the ray intersects.
-     * The algorithm calculates the intersection point using the ray's direction and the triangle's edges.
-     * In barycentric coordinates, the any point on triangle can be represented as:
-     * w × vertex1 + u × vertex2 + v × vertex3 while w + u + v = 1.
-     * Because w + u + v = 1, we can express w as: w 1 - u - v.
-     * Therefor we can express the intersection point as:
-     * intersectionPoint = (1 - u - v) × vertex1 + u × vertex2 + v × vertex3.
+     * The function uses the Möller–Trumbore algorithm - it solves directly for the distance t along the ray
+     * and the barycentric coordinates (u, v) of the intersection point:
+     * head + t × direction = (1 - u - v) × vertex1 + u × vertex2 + v × vertex3,
+     * by Cramer's rule with scalar triple products of the ray's direction and the (precomputed) edges.
+     * The whole test works on doubles - the intersection point is created only for an accepted hit
+     * (strictly inside the triangle, in front of the ray's head and within the maximum distance).
      * @param maxDistance - the maximum distance from the ray's head to consider for intersection
      * @param ray - the ray to check for intersection with the triangle
      * @return the intersection point if it exists, otherwise null
      */
     @Override
     public List<Intersection> calculateIntersectionsHelper(Ray ray, double maxDistance) {
-        // compute vectors for two edges sharing vertex p1
-        Vector edge1 = vertices.get(1).subtract(vertices.get(0));
-        Vector edge2 = vertices.get(2).subtract(vertices.get(0));
-        Vector normal = edge1.crossProduct(edge2);
-
-        // if dotProduct is near zero, ray lies in plane of triangle
-        double dotProduct = normal.dotProduct(ray.getDirection());
-        if (Util.isZero(dotProduct)) {
-            return null;
-        }
-
-        // Calculate the distance from ray origin to the plane
-        double t = normal.dotProduct(vertices.get(0).subtract(ray.getHead())) / dotProduct;
-
-        if (t < 0) {
-            return null; // The intersection point is behind the ray's origin
-        }
-
-        // calculate the intersection point
-        Point intersectionPoint = ray.getPoint(t);
+        double t = intersectionDistance(ray, maxDistance);
+        return Double.isNaN(t) ? null : List.of(new Intersection(this, ray, t));
+    }
 
-        // Calculate vector from vertex1 to intersection point
-        Vector v2 = intersectionPoint.subtract(vertices.get(0));
+    @Override
+    public boolean hasIntersections(Ray ray, double maxDistance) {
+        return !Double.isNaN(intersectionDistance(ray, maxDistance));
+    }
 
-        /*
-         * Calculate barycentric coordinates:
-         * To determine whether a point lies within a triangle, we utilize barycentric coordinates.
-         * This involves computing the barycentric coordinates of the point relative to the triangle.
-         * Through derivations and proofs, we arrived at the following matrix equation:
-         *
-         * |d00  d01| |v| = |d02|
-         * |d01  d11| |u| = |d12|
-         *
-         * By applying Cramer's rule, we can solve these equations to obtain the values of v, u, and w.
-         */
-        double d00 = edge1.dotProduct(edge1);
-        double d01 = edge1.dotProduct(edge2);
-        double d02 = edge1.dotProduct(v2);
-        double d11 = edge2.dotProduct(edge2);
-        double d12 = edge2.dotProduct(v2);
+    /**
+     * Calculates the distance along the ray to its intersection with the triangle (Möller–Trumbore)
+     * @param ray the ray
+     * @param maxDistance the maximum distance from the ray's head to consider for intersection
+     * @return the distance, or NaN if there is no intersection within the maximum distance
+     */
+    private double intersectionDistance(Ray ray, double maxDistance) {
+        Double3 direction = ray.getDirection().getXYZ(), head = ray.getHead().getXYZ();
+        double dx = direction.d1(), dy = direction.d2(), dz = direction.d3();
 
-        double invDenom = 1 / (d00 * d11 - d01 * d01);
-        double u = (d11 * d02 - d01 * d12) * invDenom;
-        double v = (d00 * d12 - d01 * d02) * invDenom;
-        double w = 1.0 - u - v;
+        // p = direction x edge2, and the determinant is edge1 . p - zero if the ray is parallel to the plane
+        double px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        if (Util.isZero(det)) return Double.NaN;
+        double invDet = 1 / det;
 
-        // Check if the point is inside the triangle
-        if (Util.alignZero(u) > 0 && Util.alignZero(v) > 0 && Util.alignZero(w) > 0 &&
-            Util.alignZero(u) < 1 && Util.alignZero(v) < 1 && Util.alignZero(w) < 1 &&
-                Util.alignZero(intersectionPoint.distanceSquared(ray.getHead()) - maxDistance*maxDistance)<=0)
-            return List.of(new Intersection(this, intersectionPoint, getMaterial())); // Return the intersection point
+        // the barycentric coordinate of the second vertex, by s = head - vertex1
+        double sx = head.d1() - x0, sy = head.d2() - y0, sz = head.d3() - z0;
+        double u = Util.alignZero((sx * px + sy * py + sz * pz) * invDet);
+        if (u <= 0 || u >= 1) return Double.NaN;
 
-        return null; // The intersection point is outside the triangle
+        // the barycentric coordinate of the third vertex, by q = s x edge1
+        double qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+        double v = Util.alignZero((dx * qx + dy * qy + dz * qz) * invDet);
+        if (v <= 0 || Util.alignZero(u + v) >= 1) return Double.NaN; // the first vertex's coordinate is 1 - u - v
 
+        // the distance along the (normalized) direction
+        double t = (e2x * qx + e2y * qy + e2z * qz) * invDet;
+        // a ray starting on the triangle's plane doesn't intersect it (as for a plane)
+        return Util.alignZero(t) <= 0 || Util.alignZero(t - maxDistance) > 0 ? Double.NaN : t;
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,7 @@
 package geometries;
 import primitives.*;
 
-import static java.lang.System.out;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -20,6 +19,12 @@ public class Tube extends RadialGeometry{
      * along which the tube is oriented.
      */
     protected final Ray axis;
+    /** The head of the axis */
+    protected final double ax, ay, az;
+    /** The (unit) direction of the axis */
+    protected final double vx, vy, vz;
+    /** The square of the radius */
+    protected final double radiusSquared;
 
     /**
      * Constructs a Tube object with the specified radius and axis ray.
@@ -30,6 +35,14 @@ public class Tube extends RadialGeometry{
     public Tube(double radius, Ray axis) {
         super(radius);
         this.axis = axis;
+        Double3 head = axis.getHead().getXYZ(), direction = axis.getDirection().getXYZ();
+        ax = head.d1();
+        ay = head.d2();
+        az = head.d3();
+        vx = direction.d1();
+        vy = direction.d2();
+        vz = direction.d3();
+        radiusSquared = radius * radius;
     }
 
     /**
@@ -51,46 +64,71 @@ public class Tube extends RadialGeometry{
 
     @Override
     public List<Intersection> calculateIntersectionsHelper(Ray ray, double maxDistance) {
-        Vector direction = ray.getDirection();
-        Point head = ray.getHead();
-        Vector axisDirection = axis.getDirection();
-        Vector vProg;
-        Point center;
-        if(axisDirection.equals(direction) || axisDirection.equals(direction.scale(-1))) {
-            return null;
-        }
+        return lateralIntersections(ray, maxDistance, Double.POSITIVE_INFINITY);
+    }
 
-        if (Util.isZero(axisDirection.dotProduct(direction))) {
-            vProg = direction;
-        }
-        else {
-            vProg = direction.subtract(axisDirection.scale(direction.dotProduct(axisDirection)));
-        }
-        if (ray.getHead().equals(axis.getHead())) {
-            center = axis.getHead();
-        }
-        else {
-            center = axis.getPoint(ray.getHead().subtract(axis.getHead()).dotProduct(axisDirection));
-        }
-        Sphere sphere = new Sphere(radius, center);
-        List<Intersection> temp = sphere.calculateIntersectionsHelper(new Ray(vProg,head), maxDistance);
-        if(temp == null) return null;
-        List<Intersection> intersections = new LinkedList<>(temp);
-        double intersectionDelta = 0d;
-        for (int i = 0;i<intersections.size();i++) {
-            if(Util.alignZero(intersections.get(i).point.distanceSquared(head)/vProg.lengthSquared()
-                    - maxDistance*maxDistance)<=0) {
-                if(intersections.get(i).point.equals(head)) {
-                    intersectionDelta = 0d;
-                }
-                else{
-                    intersectionDelta = intersections.get(i).point.subtract(head).length() /
-                            vProg.length();
-                }
-                intersections.set(i, new Intersection(this, ray.getPoint(intersectionDelta), this.getMaterial())); //Tales's law
-            }
+    /**
+     * Calculates the intersections of a ray with the lateral surface of the tube (up to a height along the axis).
+     * The ray and the tube are projected on the plane orthogonal to the axis, where the tube is a circle, and
+     * the quadratic equation of the projected ray and the circle is solved directly on doubles - for a distance
+     * s along the projected ray, which is the distance t along the ray times the length of the projected direction.
+     * No object is created unless there is an intersection.
+     *
+     * @param ray         the ray
+     * @param maxDistance the maximum distance from the ray's head to consider for intersection
+     * @param height      the height along the axis (from the axis's head) bounding the surface, infinity for a tube
+     * @return a mutable list of the intersections ordered by their distance, or null if there are none
+     */
+    protected List<Intersection> lateralIntersections(Ray ray, double maxDistance, double height) {
+        Double3 direction = ray.getDirection().getXYZ(), head = ray.getHead().getXYZ();
+        double dx = direction.d1(), dy = direction.d2(), dz = direction.d3();
+        // the projected direction
+        double dv = dx * vx + dy * vy + dz * vz;
+        double px = dx - dv * vx, py = dy - dv * vy, pz = dz - dv * vz;
+        double projectedLengthSquared = px * px + py * py + pz * pz;
+        if (Util.isZero(projectedLengthSquared)) return null; // the ray is parallel to the axis
 
+        // the projected vector from the axis's head to the ray's head
+        double hx = head.d1() - ax, hy = head.d2() - ay, hz = head.d3() - az;
+        double hv = hx * vx + hy * vy + hz * vz;
+        double qx = hx - hv * vx, qy = hy - hv * vy, qz = hz - hv * vz;
+
+        // the projected ray against the circle, as for a sphere
+        double projectedLength = Math.sqrt(projectedLengthSquared);
+        double tm = -(qx * px + qy * py + qz * pz) / projectedLength;
+        double d = Math.sqrt(Util.alignZero(qx * qx + qy * qy + qz * qz - tm * tm));
+        if (Util.alignZero(d - radius) >= 0) return null; // the ray's line misses the tube or is tangent to it
+        double th = Math.sqrt(radiusSquared - d * d);
+
+        List<Intersection> intersections = lateralIntersection(ray, (tm - th) / projectedLength,
+                maxDistance, hv, dv, height, null);
+        intersections = lateralIntersection(ray, (tm + th) / projectedLength, maxDistance, hv, dv, height, intersections);
+        return intersections;
+    }
+
+    /**
+     * Adds an intersection with the lateral surface of the tube, if it is in front of the ray's head,
+     * within the maximum distance and within the height along the axis
+     *
+     * @param ray           the ray
+     * @param t             the distance of the intersection along the ray
+     * @param maxDistance   the maximum distance from the ray's head to consider for intersection
+     * @param headHeight    the height of the ray's head along the axis
+     * @param heightPerUnit the height gained along the axis per a unit of distance along the ray
+     * @param height        the height along the axis bounding the surface, infinity for a tube
+     * @param intersections the intersections found so far, or null if there are none
+     * @return the updated intersections, or null if there are none
+     */
+    private List<Intersection> lateralIntersection(Ray ray, double t, double maxDistance, double headHeight,
+                                                   double heightPerUnit, double height,
+                                                   List<Intersection> intersections) {
+        if (Util.alignZero(t) <= 0 || Util.alignZero(t - maxDistance) > 0) return intersections;
+        if (height != Double.POSITIVE_INFINITY) {
+            double axial = Util.alignZero(headHeight + t * heightPerUnit);
+            if (axial <= 0 || Util.alignZero(axial - height) >= 0) return intersections;
         }
+        if (intersections == null) intersections = new ArrayList<>(4);
+        intersections.add(new Intersection(this, ray, t));
         return intersections;
     }
-}
\ No newline at end of file
+}
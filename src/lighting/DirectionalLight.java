@@ -46,4 +46,9 @@ public class DirectionalLight extends Light implements LightSource{
         return 0; // Directional light does not have a radius
     }
 
+    @Override
+    public int getNumSamples() {
+        return 1; // Directional light casts a single (sharp) shadow ray
+    }
+
 }
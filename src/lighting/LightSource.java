@@ -43,4 +43,11 @@ public interface LightSource {
      */
     public double getRadius();
 
+    /**
+     * Returns the number of shadow ray samples per side of the light's blackboard,
+     * used for soft shadows when the light has a radius.
+     * @return the number of samples per side (the light is sampled by numSamples x numSamples rays)
+     */
+    public int getNumSamples();
+
 }
@@ -29,6 +29,11 @@ public class PointLight extends Light implements LightSource{
      */
     private double radius = 0d;
 
+    /**
+     * The number of shadow ray samples per side of the light's blackboard, used for soft shadows.
+     */
+    private int numSamples = 17;
+
     /**
      * Constructs a PointLight object with the specified position and intensity.
      *
@@ -100,7 +105,20 @@ public class PointLight extends Light implements LightSource{
         this.radius = radius;
         return this;
     }
-}
-
 
+    @Override
+    public int getNumSamples() {
+        return numSamples;
+    }
 
+    /**
+     * setter for the number of shadow ray samples
+     * @param numSamples - number of samples per side of the light's blackboard (numSamples x numSamples rays)
+     * @return PointLight object
+     */
+    public PointLight setNumSamples(int numSamples) {
+        if (numSamples < 1) throw new IllegalArgumentException("Number of samples must be positive");
+        this.numSamples = numSamples;
+        return this;
+    }
+}
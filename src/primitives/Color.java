@@ -63,6 +63,19 @@ public class Color {
         return new java.awt.Color(ir > 255 ? 255 : ir, ig > 255 ? 255 : ig, ib > 255 ? 255 : ib);
     }
 
+    /**
+     * Packed color getter - returns the color as an ARGB int (opaque), the same as
+     * {@code getColor().getRGB()} but without creating any object. During the conversion
+     * any component bigger than 255 is set to 255
+     * @return the packed ARGB value of this Color
+     */
+    public int getRGB() {
+        int ir = (int) rgb.d1();
+        int ig = (int) rgb.d2();
+        int ib = (int) rgb.d3();
+        return 0xFF000000 | (ir > 255 ? 255 : ir) << 16 | (ig > 255 ? 255 : ig) << 8 | (ib > 255 ? 255 : ib);
+    }
+
     /**
      * Operation of adding this and one or more other colors (by component)
      * @param  colors one or more other colors to add
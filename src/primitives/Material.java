@@ -40,6 +40,10 @@ public class Material
      * A higher value results in sharper refractions.
      */
     public double diffusion = Double.POSITIVE_INFINITY;
+    /**
+     * The number of samples per side of the blackBoard of diffusion (diffusionSamples x diffusionSamples rays).
+     */
+    public int diffusionSamples = 17;
     /**
      * The reflection coefficient of the material.
      */
@@ -53,6 +57,10 @@ public class Material
      * A higher value results in sharper reflections.
      */
     public double glossure = Double.POSITIVE_INFINITY;
+    /**
+     * The number of samples per side of the blackBoard of glossure (glossureSamples x glossureSamples rays).
+     */
+    public int glossureSamples = 17;
 
     /**
      * Setter for ka with Double3 parameter
@@ -184,4 +192,26 @@ public class Material
         this.glossure = glossure;
         return this;
     }
+
+    /**
+     * Setter for the number of diffusion samples
+     * @param diffusionSamples - number of samples per side of the blackBoard of diffusion
+     * @return this Material object
+     */
+    public Material setDiffusionSamples(int diffusionSamples) {
+        if (diffusionSamples < 1) throw new IllegalArgumentException("Number of samples must be positive");
+        this.diffusionSamples = diffusionSamples;
+        return this;
+    }
+
+    /**
+     * Setter for the number of glossure samples
+     * @param glossureSamples - number of samples per side of the blackBoard of glossure
+     * @return this Material object
+     */
+    public Material setGlossureSamples(int glossureSamples) {
+        if (glossureSamples < 1) throw new IllegalArgumentException("Number of samples must be positive");
+        this.glossureSamples = glossureSamples;
+        return this;
+    }
 }
@@ -0,0 +1,131 @@
+package renderer;
+
+import primitives.Color;
+
+import java.util.HashMap;
+
+/**
+ * Recursive adaptive supersampling of a block of pixels (such as a tile or a row of the image).<br/>
+ * Each pixel is sampled first at its four corners and its center only. A square whose samples
+ * differ beyond a threshold is subdivided into four sub-squares, which are sampled the same way,
+ * down to a maximal depth - so the rays are cast only along the edges and the textures,
+ * while a smooth pixel costs five samples at most.<br/>
+ * The samples lie on a lattice over the block, and each of them is traced once - the corners are
+ * shared by the neighbouring pixels of the block and by the neighbouring sub-squares.<br/>
+ * The supersampler holds a cache of the block's samples, so it is used by a single thread.
+ */
+final class AdaptiveSupersampler {
+    /** Default maximal difference (0-255 per color component) between the samples of a smooth square */
+    static final double DEFAULT_THRESHOLD = 8d;
+    /** Maximal depth of the subdivision (keeps the lattice coordinates of a block within an int) */
+    static final int MAX_DEPTH = 10;
+
+    /**
+     * Traces a ray through a point of the view plane
+     */
+    @FunctionalInterface
+    interface Tracer {
+        /**
+         * Traces the ray through a point of the view plane
+         * @param x the column coordinate of the point (in pixels, the left edge of pixel j is at j)
+         * @param y the row coordinate of the point (in pixels, the top edge of pixel i is at i)
+         * @return the color of the ray
+         */
+        Color trace(double x, double y);
+    }
+
+    /** The tracer of the rays */
+    private final Tracer tracer;
+    /** The maximal difference between the samples of a smooth square */
+    private final double threshold;
+    /** Amount of lattice steps per pixel side - two steps at the maximal depth, so the center is on the lattice */
+    private final int steps;
+    /** First pixel column of the block */
+    private final int col0;
+    /** First pixel row of the block */
+    private final int row0;
+    /** The samples traced so far, by their lattice coordinates */
+    private final HashMap<Long, Color> samples = new HashMap<>();
+
+    /**
+     * Creates a supersampler of a block of pixels
+     * @param maxDepth  the maximal depth of the subdivision of a pixel (0 - five samples per pixel)
+     * @param threshold the maximal difference (0-255 per color component) between the samples of a smooth square
+     * @param col0      first pixel column of the block
+     * @param row0      first pixel row of the block
+     * @param tracer    the tracer of the rays
+     */
+    AdaptiveSupersampler(int maxDepth, double threshold, int col0, int row0, Tracer tracer) {
+        if (maxDepth < 0 || maxDepth > MAX_DEPTH) throw new IllegalArgumentException("Depth must be 0 to " + MAX_DEPTH);
+        this.steps = 2 << maxDepth;
+        this.threshold = threshold;
+        this.col0 = col0;
+        this.row0 = row0;
+        this.tracer = tracer;
+    }
+
+    /**
+     * Calculates the color of a pixel of the block
+     * @param j pixel index in the x direction
+     * @param i pixel index in the y direction
+     * @return the color of the pixel
+     */
+    Color pixelColor(int j, int i) {
+        return squareColor((j - col0) * steps, (i - row0) * steps, steps);
+    }
+
+    /**
+     * Amount of rays traced so far
+     * @return the amount of rays
+     */
+    int tracedRays() { return samples.size(); }
+
+    /**
+     * Calculates the color of a square of the lattice - the average of its corners and its center,
+     * or the average of its sub-squares if its samples differ
+     * @param x    lattice column of the top left corner
+     * @param y    lattice row of the top left corner
+     * @param size lattice size of the side of the square
+     * @return the color of the square
+     */
+    private Color squareColor(int x, int y, int size) {
+        int half = size / 2;
+        Color c00 = sample(x, y), c10 = sample(x + size, y), c01 = sample(x, y + size),
+                c11 = sample(x + size, y + size), center = sample(x + half, y + half);
+        if (half == 1 || isSmooth(c00, c10, c01, c11, center))
+            return c00.add(c10, c01, c11, center).scale(0.2);
+        return squareColor(x, y, half).add(squareColor(x + half, y, half),
+                squareColor(x, y + half, half), squareColor(x + half, y + half, half)).scale(0.25);
+    }
+
+    /**
+     * Checks whether the samples of a square are close enough to each other
+     * @param colors the samples
+     * @return true if no color component of the samples differs beyond the threshold
+     */
+    private boolean isSmooth(Color... colors) {
+        double minR = colors[0].rgb.d1(), maxR = minR;
+        double minG = colors[0].rgb.d2(), maxG = minG;
+        double minB = colors[0].rgb.d3(), maxB = minB;
+        for (Color color : colors) {
+            minR = Math.min(minR, color.rgb.d1());
+            maxR = Math.max(maxR, color.rgb.d1());
+            minG = Math.min(minG, color.rgb.d2());
+            maxG = Math.max(maxG, color.rgb.d2());
+            minB = Math.min(minB, color.rgb.d3());
+            maxB = Math.max(maxB, color.rgb.d3());
+        }
+        return maxR - minR <= threshold && maxG - minG <= threshold && maxB - minB <= threshold;
+    }
+
+    /**
+     * Provides the sample at a point of the lattice - traced on the first request
+     * @param x lattice column of the point
+     * @param y lattice row of the point
+     * @return the color of the sample
+     */
+    private Color sample(int x, int y) {
+        return samples.computeIfAbsent((long) y << 32 | x,
+                key -> tracer.trace(col0 + (double) x / steps, row0 + (double) y / steps));
+    }
+}
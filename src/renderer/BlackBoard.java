@@ -1,9 +1,10 @@
 package renderer;
 import primitives.*;
 
-import java.util.Random;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 
 /**
  * The BlackBoard class represents a virtual blackboard in 3D space.
@@ -13,10 +14,42 @@ import java.util.List;
  */
 public class BlackBoard {
     /**
-     * The number of samples per pixel.
+     * The default number of samples per side of the blackboard - 17x17=289 grid of samples.
+     */
+    public static final int DEFAULT_SAMPLES = 17;
+    /**
+     * The number of samples per side of the preliminary grid in adaptive mode - 4x4=16 samples.
+     */
+    static final int ADAPTIVE_SAMPLES = 4;
+    /**
+     * Tolerance for colors (0-255 per component) of the preliminary samples to be considered equal
+     */
+    static final double COLOR_TOLERANCE = 1d;
+    /**
+     * Tolerance for transparency coefficients (0-1 per component) of the preliminary samples to be considered equal
+     */
+    static final double KTR_TOLERANCE = 0.001;
+    /**
+     * The number of samples per side of the blackboard.
      * Default value is 17, which means 17x17=289 grid of samples.
      */
-    private final int numSamples = 17;
+    private int numSamples = DEFAULT_SAMPLES;
+    /**
+     * A flag indicating whether the sampling is adaptive.
+     * If true, a small preliminary grid of samples is cast first, and the full grid is cast
+     * only if the preliminary samples disagree.
+     */
+    private boolean adaptive = false;
+    /**
+     * The variant of the precomputed sample table to use, chosen by a scrambling key.
+     * If negative, a random variant is chosen for each cast.
+     */
+    private int scramble = -1;
+    /**
+     * The sampler generating the sample pattern of the blackboard.
+     * Default is a jittered grid.
+     */
+    private SamplerType sampler = SamplerType.JITTERED;
     /**
      * The size of the blackboard in world units.
      * Default value is 0.5.
@@ -49,7 +82,8 @@ public class BlackBoard {
     private Vector normal = null;
     /**
      * A flag indicating whether the blackboard is circular.
-     * If true, rays will only be cast within a circular area defined by the size.
+     * If true, the samples are mapped onto a circular area defined by the size (by the concentric mapping,
+     * so the number of rays is the same as of a square blackboard).
      */
     private boolean circular = false;
     /**
@@ -78,64 +112,182 @@ public class BlackBoard {
 
     /**
      * Casts rays from the blackboard based on the specified parameters.
-     * The rays are cast in a grid pattern defined by the number of samples and the size of the blackboard.
-     * If circular is true, rays are only cast within a circular area defined by the size.
+     * The rays are cast in a pattern of the blackboard's sampler, defined by the number of samples and the size of the blackboard.
+     * If circular is true, the samples are mapped onto a circular area defined by the size.
      * If dof is true, rays are cast with depth of field effect.
      *
      * @return a list of Ray objects representing the rays cast from the blackboard or to the blackboard.
      */
     public List<Ray> castRays() {
+        return castRays(numSamples);
+    }
+
+    /**
+     * Casts rays from the blackboard in a pattern of the given number of samples per side,
+     * taking the offsets of the samples from a precomputed table of the blackboard's sampler.
+     *
+     * @param numSamples the number of samples per side of the grid
+     * @return a list of Ray objects representing the rays cast from the blackboard or to the blackboard.
+     */
+    private List<Ray> castRays(int numSamples) {
+        SampleTable table = SampleTable.of(sampler, numSamples,
+                scramble < 0 ? SampleTable.randomVariant() : scramble);
+        // if the blackboard is circular, the samples are mapped onto the circle
+        double[] xs = circular ? table.diskX : table.squareX;
+        double[] ys = circular ? table.diskY : table.squareY;
+
+        List<Ray> rays = new ArrayList<>(xs.length);
+        for (int k = 0; k < xs.length; k++)
+            rays.add(castRay(single, xs[k] * size, ys[k] * size));
+        return rays;
+    }
+
+    /**
+     * Casts one ray for each of the given single points, each ray through a different sample of the blackboard.
+     * Used for combining the blackboard with another sampling (such as the lens of depth of field with
+     * the pixel samples of anti-aliasing) - the i-th single point is paired with a shuffled sample,
+     * so N rays cover both samplings (instead of N rays of the blackboard for each single point).
+     * The blackboard must have as many samples as there are single points.
+     *
+     * @param singles the single points, numSamples x numSamples of them
+     * @return a list of Ray objects - one from the blackboard or to the blackboard for each single point
+     * @throws IllegalArgumentException if the amount of single points is not the amount of samples
+     */
+    public List<Ray> castRays(List<Point> singles) {
+        if (singles.size() != numSamples * numSamples)
+            throw new IllegalArgumentException("The amount of single points must be the amount of samples");
+        SampleTable table = SampleTable.of(sampler, numSamples,
+                scramble < 0 ? SampleTable.randomVariant() : scramble);
+        double[] xs = circular ? table.diskX : table.squareX;
+        double[] ys = circular ? table.diskY : table.squareY;
+
+        List<Ray> rays = new ArrayList<>(singles.size());
+        for (int k = 0; k < singles.size(); k++)
+            rays.add(castRay(singles.get(k), xs[table.shuffle[k]] * size, ys[table.shuffle[k]] * size));
+        return rays;
+    }
+
+    /**
+     * Casts a single ray through a uniformly distributed random point of the blackboard (of the disk if it is circular).
+     * Independent random rays (unlike the samples of the tables) allow estimating the variance of a sampled quantity.
+     *
+     * @return the ray from the blackboard or to the blackboard
+     */
+    public Ray castRandomRay() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double x, y;
+        do {
+            x = random.nextDouble() - 0.5;
+            y = random.nextDouble() - 0.5;
+        } while (circular && x * x + y * y > 0.25);
+        return castRay(single, x * size, y * size);
+    }
 
-        List<Ray> rays = new ArrayList<>();
-        Point pIJ;
-
-        double cellSize = size / numSamples;
-        double Xj, Yi;
-        double jitteration;
-        for (int i = 0; i < numSamples; i++) {
-            for(int j = 0; j < numSamples; j++) {
-
-                jitteration = Double.POSITIVE_INFINITY;
-                Xj = (j - (numSamples-1) / 2d) * (cellSize);
-                Random rand = new Random();
-
-                while(Math.abs(jitteration) > cellSize/2){
-                    jitteration = rand.nextGaussian() * cellSize / 4;
-                }
-                Xj += jitteration;
-
-                Yi = -(i - (numSamples-1) / 2d) * (cellSize);
-
-                jitteration = Double.POSITIVE_INFINITY;
-                while(Math.abs(jitteration) > cellSize/2){
-                    jitteration = rand.nextGaussian() * cellSize / 4;
-                }
-                Yi += jitteration;
-
-                pIJ = location;
-
-                // we are calculating the ray through the pixel in three stages so we won't have a problem of zero vector.
-                if (Xj != 0) pIJ = pIJ.add(vRight.scale(Xj));
-                if (Yi != 0) pIJ = pIJ.add(vUp.scale(Yi));
-
-                // if the blackboard is circular, we check if the point is inside the circle
-                if(!circular || pIJ.distanceSquared(location) < size * size / 4) {
-                    if (dof)
-                        rays.add(new Ray(single.subtract(pIJ), pIJ));
-                    else if (normal == null) { // this is the case of antialiasing
-                        rays.add(new Ray(pIJ.subtract(single), single));
-                    }
-                         else // this is the case of soft shadows, glossy and diffuse surfaces
-                            rays.add(new Ray(pIJ.subtract(single), normal, single));
-                }
+    /**
+     * Casts a ray from a sample of the blackboard or to it.
+     *
+     * @param single the single point from which the ray is cast or to which the ray is cast
+     * @param Xj     the horizontal offset of the sample from the blackboard's center
+     * @param Yi     the vertical offset of the sample from the blackboard's center
+     * @return the ray
+     */
+    private Ray castRay(Point single, double Xj, double Yi) {
+        Point pIJ = location;
+        // we are calculating the ray through the pixel in three stages so we won't have a problem of zero vector.
+        if (Xj != 0) pIJ = pIJ.add(vRight.scale(Xj));
+        if (Yi != 0) pIJ = pIJ.add(vUp.scale(Yi));
+
+        if (dof)
+            return new Ray(single.subtract(pIJ), pIJ);
+        if (normal == null) // this is the case of antialiasing
+            return new Ray(pIJ.subtract(single), single);
+        // this is the case of soft shadows, glossy and diffuse surfaces
+        return new Ray(pIJ.subtract(single), normal, single);
+    }
+
+    /**
+     * Averages a sampled quantity (such as a color or a transparency) over the rays of the blackboard.
+     * In adaptive mode a preliminary grid of {@value #ADAPTIVE_SAMPLES}x{@value #ADAPTIVE_SAMPLES} samples is cast first,
+     * and if all its samples agree (within the tolerance) their average is returned -
+     * otherwise the full grid is cast and averaged together with the preliminary samples.
+     *
+     * @param sampler   the function calculating the quantity along a ray
+     * @param tolerance the maximal difference (per component) between samples which agree
+     * @return the average of the quantity
+     */
+    public Double3 average(Function<Ray, Double3> sampler, double tolerance) {
+        Double3 sum = Double3.ZERO;
+        int count = 0;
+        if (adaptive && numSamples > ADAPTIVE_SAMPLES) {
+            double min1 = Double.POSITIVE_INFINITY, min2 = Double.POSITIVE_INFINITY, min3 = Double.POSITIVE_INFINITY;
+            double max1 = Double.NEGATIVE_INFINITY, max2 = Double.NEGATIVE_INFINITY, max3 = Double.NEGATIVE_INFINITY;
+            for (Ray ray : castRays(ADAPTIVE_SAMPLES)) {
+                Double3 sample = sampler.apply(ray);
+                sum = sum.add(sample);
+                ++count;
+                min1 = Math.min(min1, sample.d1());
+                min2 = Math.min(min2, sample.d2());
+                min3 = Math.min(min3, sample.d3());
+                max1 = Math.max(max1, sample.d1());
+                max2 = Math.max(max2, sample.d2());
+                max3 = Math.max(max3, sample.d3());
             }
+            if (count > 0 && max1 - min1 <= tolerance && max2 - min2 <= tolerance && max3 - min3 <= tolerance)
+                return sum.reduce(count);
         }
-        return rays;
+        for (Ray ray : castRays()) {
+            sum = sum.add(sampler.apply(ray));
+            ++count;
+        }
+        return count == 0 ? Double3.ZERO : sum.reduce(count);
+    }
+
+    /**
+     * setter function for the number of samples.
+     * @param numSamples - the number of samples per side of the blackboard (numSamples x numSamples grid).
+     * @return this - for chaining method calls.
+     */
+    public BlackBoard setNumSamples(int numSamples) {
+        if (numSamples < 1) throw new IllegalArgumentException("Number of samples must be positive");
+        this.numSamples = numSamples;
+        return this;
+    }
+
+    /**
+     * setter function for the scrambling key of the samples.
+     * Blackboards with the same key use the same sample pattern, and blackboards with different keys
+     * (such as neighbouring pixels) use different patterns.
+     * @param key - the scrambling key (such as a pixel index)
+     * @return this - for chaining method calls.
+     */
+    public BlackBoard setScramble(long key) {
+        scramble = SampleTable.variant(key);
+        return this;
+    }
+
+    /**
+     * setter function for the sampler.
+     * @param sampler - the sampler generating the sample pattern (jittered grid, low-discrepancy or blue noise).
+     * @return this - for chaining method calls.
+     */
+    public BlackBoard setSampler(SamplerType sampler) {
+        this.sampler = sampler;
+        return this;
+    }
+
+    /**
+     * setter function for the adaptive flag.
+     * @param adaptive - if true, the full grid of samples is cast only where a preliminary grid disagrees.
+     * @return this - for chaining method calls.
+     */
+    public BlackBoard setAdaptive(boolean adaptive) {
+        this.adaptive = adaptive;
+        return this;
     }
 
     /**
      * setter function for the circular flag.
-     * @param circular - if true, rays will only be cast within a circular area defined by the size.
+     * @param circular - if true, the samples will be mapped onto a circular area defined by the size.
      * @return this - for chaining method calls.
      */
     public BlackBoard setCircular(boolean circular) {
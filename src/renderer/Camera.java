@@ -4,6 +4,9 @@ import primitives.*;
 import scene.Scene;
 
 import java.util.ArrayList;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.stream.*;
 import java.util.LinkedList;
 import java.util.List;
@@ -31,6 +34,40 @@ public class Camera implements Cloneable{
     private ImageWriter imageWriter;
     private RayTracerBase rayTracer;
     private double dOFdistance = 0; // Distance aperture window to focal plane
+    /** Number of anti-aliasing samples per side of a pixel's blackboard */
+    private int antiAliasingSamples = BlackBoard.DEFAULT_SAMPLES;
+    /** Number of depth of field samples per side of the aperture window */
+    private int dOFSamples = BlackBoard.DEFAULT_SAMPLES;
+    /**
+     * Whether the blackboards (anti-aliasing, soft shadows, glossy and diffuse surfaces) are sampled adaptively -
+     * all the samples are cast only where a preliminary small set of samples disagrees
+     */
+    private boolean adaptiveSampling = false;
+    /** The sampler generating the sample patterns of the blackboards */
+    private SamplerType sampler = SamplerType.JITTERED;
+    /** Threshold of the Russian roulette termination of the secondary rays, 0 if there is no Russian roulette */
+    private double russianRoulette = 0;
+    /** Budget of the secondary rays of the glossy and diffuse surfaces per primary ray, 0 for an unlimited budget */
+    private int sampleBudget = 0;
+    /**
+     * Maximal depth of the recursive adaptive supersampling of the pixels<br>
+     * if it is negative - the supersampling is off
+     */
+    private int supersamplingDepth = -1;
+    /** Maximal difference (0-255 per color component) between the samples of a smooth pixel or sub-square */
+    private double supersamplingThreshold = AdaptiveSupersampler.DEFAULT_THRESHOLD;
+    /**
+     * Tolerance (0-255 per color component) of the variance-driven sampling of the pixels - the maximal half-width
+     * of the confidence interval of a pixel's color<br>
+     * if it is zero - the variance-driven sampling is off
+     */
+    private double varianceTolerance = 0;
+    /** Maximal amount of samples of a pixel in the variance-driven sampling */
+    private int varianceMaxSamples = 1024;
+    /** Amount of samples of a pixel in each round of the variance-driven sampling */
+    private static final int VARIANCE_ROUND = 8;
+    /** Confidence level factor of the variance-driven sampling (standard deviations) - 95% confidence */
+    private static final double VARIANCE_CONFIDENCE = 1.96;
     private int nX = 1;
     private int nY = 1;
     /** Amount of threads to use fore rendering image by the camera */
@@ -45,6 +82,30 @@ public class Camera implements Cloneable{
      * if it is zero - there is no progress output
      */
     private double printInterval = 0;
+    /**
+     * Size (in pixels) of the side of the square tiles dealt to the rendering threads<br>
+     * if it is zero - the threads take the pixels one by one from the pixel manager
+     */
+    private int tileSize = 16;
+    /**
+     * Whether the pixel manager works in its lock-free mode (atomic pixel allocation,
+     * striped progress counter, and progress printing by a separate thread)
+     */
+    private boolean lockFreePixels = true;
+    /**
+     * Type of the executor created for each rendering to run the rendering tasks<br>
+     * if it is null (and there is no shared executor) - the rendering is done by the multi-threading mode
+     */
+    private ExecutorType executorType = null;
+    /** Shared executor running the rendering tasks - it is never shut down by the camera */
+    private ExecutorService executor = null;
+    /** Rendering deadline in seconds (when rendering by an executor), 0 if there is no deadline */
+    private double renderTimeout = 0;
+    /**
+     * The cancellation flag of the rendering by an executor in progress, polled by its tasks -
+     * null if there is no such rendering
+     */
+    private volatile AtomicBoolean renderCancelled = null;
     /**
      * Pixel manager for supporting:
      * <ul>
@@ -199,12 +260,13 @@ public class Camera implements Cloneable{
          * @throws MissingResourceException if any required values are missing
          */
         public Builder setRayTracer(Scene scene, RayTracerType rayTracerType) {
-            if(rayTracerType == RayTracerType.SIMPLE) {
-                camera.rayTracer = new SimpleRayTracer(scene);
-            }
-            else{
-                camera.rayTracer = null;
-            }
+            camera.rayTracer = switch (rayTracerType) {
+                case SIMPLE -> new SimpleRayTracer(scene);
+                case GRID -> new GridRayTracer(scene);
+                case PATH -> new PathTracer(scene);
+                case ITERATIVE -> new IterativeRayTracer(scene);
+                case WAVEFRONT -> new WavefrontRayTracer(scene);
+            };
             return this;
         }
 
@@ -252,6 +314,140 @@ public class Camera implements Cloneable{
             camera.antiAliasing = antiAliasing;
             return this;
         }
+        /**
+         * Set the number of anti-aliasing samples.
+         * @param samples - number of samples per side of a pixel (samples x samples rays per pixel)
+         * @return this Builder object
+         * @throws IllegalArgumentException if the number is not positive
+         */
+        public Builder setAntiAliasingSamples(int samples) {
+            if (samples < 1) throw new IllegalArgumentException("Number of samples must be positive");
+            camera.antiAliasingSamples = samples;
+            return this;
+        }
+
+        /**
+         * Set the number of depth of field samples (without anti-aliasing - with anti-aliasing
+         * each pixel sample is paired with a single sample of the aperture window).
+         * @param samples - number of samples per side of the aperture window (samples x samples rays per ray)
+         * @return this Builder object
+         * @throws IllegalArgumentException if the number is not positive
+         */
+        public Builder setDoFSamples(int samples) {
+            if (samples < 1) throw new IllegalArgumentException("Number of samples must be positive");
+            camera.dOFSamples = samples;
+            return this;
+        }
+
+        /**
+         * Set adaptive sampling of the blackboards - anti-aliasing (without depth of field) by the camera,
+         * and soft shadows, glossy and diffuse surfaces by the ray tracer. A small preliminary set of
+         * samples is cast first, and the full set is cast only if the preliminary samples disagree.
+         * @param adaptiveSampling - true to enable adaptive sampling
+         * @return this Builder object
+         */
+        public Builder setAdaptiveSampling(boolean adaptiveSampling) {
+            camera.adaptiveSampling = adaptiveSampling;
+            return this;
+        }
+
+        /**
+         * Set the sampler generating the sample patterns of all the blackboards - anti-aliasing and
+         * depth of field by the camera, and soft shadows, glossy and diffuse surfaces by the ray tracer.
+         * Low-discrepancy and blue-noise patterns reach the same noise level with fewer samples
+         * than the jittered grid.
+         * @param sampler - the sampler
+         * @return this Builder object
+         */
+        public Builder setSampler(SamplerType sampler) {
+            if (sampler == null) throw new IllegalArgumentException("Sampler cannot be null");
+            camera.sampler = sampler;
+            return this;
+        }
+
+        /**
+         * Set recursive adaptive supersampling - an anti-aliasing mode (without depth of field) which replaces
+         * the blackboard of {@link #setAntiAliasing(boolean)}. Each pixel is sampled at its corners and its center,
+         * and the squares whose samples differ are subdivided recursively, sharing their corners
+         * with the neighbouring pixels and sub-squares.
+         * @param maxDepth - the maximal depth of the subdivision (0 - five samples per pixel), negative to disable
+         * @param threshold - the maximal difference (0-255 per color component) between the samples of a smooth square
+         * @return this Builder object
+         * @throws IllegalArgumentException if the depth is too big or the threshold is negative
+         */
+        public Builder setSupersampling(int maxDepth, double threshold) {
+            if (maxDepth > AdaptiveSupersampler.MAX_DEPTH)
+                throw new IllegalArgumentException("Depth must not exceed " + AdaptiveSupersampler.MAX_DEPTH);
+            if (threshold < 0) throw new IllegalArgumentException("Threshold must not be negative");
+            camera.supersamplingDepth = maxDepth;
+            camera.supersamplingThreshold = threshold;
+            return this;
+        }
+
+        /**
+         * Set the Russian roulette termination of the secondary (reflected and refracted) rays of the ray tracer -
+         * the rays whose accumulated attenuation is below the threshold are terminated randomly, and the color of
+         * the surviving rays is scaled up accordingly (see {@link SimpleRayTracer#setRussianRoulette(double)}).
+         * It does not apply to a {@link RayTracerType#PATH path tracer}.
+         * @param threshold - the attenuation (0-1) below which the rays are terminated randomly, 0 to disable
+         * @return this Builder object
+         * @throws IllegalArgumentException if the threshold is not in the range 0-1
+         */
+        public Builder setRussianRoulette(double threshold) {
+            if (threshold < 0 || threshold > 1) throw new IllegalArgumentException("Threshold must be in the range 0-1");
+            camera.russianRoulette = threshold;
+            return this;
+        }
+
+        /**
+         * Set the budget of the secondary rays of the glossy and diffuse surfaces along the path of each primary ray
+         * of the ray tracer - the blackboards of the surfaces divide the budget among their rays by the level of
+         * recursion and the attenuation of the path (see {@link SimpleRayTracer#setSampleBudget(int)}).
+         * It does not apply to a {@link RayTracerType#PATH path tracer}.
+         * @param budget - the budget of the secondary rays per primary ray, 0 for an unlimited budget
+         * @return this Builder object
+         * @throws IllegalArgumentException if the budget is negative
+         */
+        public Builder setSampleBudget(int budget) {
+            if (budget < 0) throw new IllegalArgumentException("Budget must not be negative");
+            camera.sampleBudget = budget;
+            return this;
+        }
+
+        /**
+         * Set variance-driven sampling of the pixels - a rendering mode which traces random samples of each pixel
+         * (random points of the pixel, and of the aperture window with depth of field) in rounds of
+         * {@value Camera#VARIANCE_ROUND}, tracking the mean and the variance of the pixel's color.
+         * A pixel stops once the confidence interval of its color is within the tolerance, or when it reaches
+         * the maximal amount of samples - so the noise of all the stochastic effects together
+         * (anti-aliasing, depth of field, soft shadows, glossy and diffuse surfaces) decides the samples of a pixel.
+         * Small blackboards of the lights and the materials fit this mode best.
+         * It replaces the blackboard of {@link #setAntiAliasing(boolean)} and the supersampling.
+         * @param tolerance - the maximal half-width (0-255 per color component) of the 95% confidence interval
+         *                  of a pixel's color, 0 to disable
+         * @param maxSamples - the maximal amount of samples of a pixel
+         * @return this Builder object
+         * @throws IllegalArgumentException if the tolerance is negative or the maximal amount of samples is not positive
+         */
+        public Builder setVarianceSampling(double tolerance, int maxSamples) {
+            if (tolerance < 0) throw new IllegalArgumentException("Tolerance must not be negative");
+            if (maxSamples < 1) throw new IllegalArgumentException("Number of samples must be positive");
+            camera.varianceTolerance = tolerance;
+            camera.varianceMaxSamples = maxSamples;
+            return this;
+        }
+
+        /**
+         * Set recursive adaptive supersampling with the default threshold
+         * @param maxDepth - the maximal depth of the subdivision (0 - five samples per pixel), negative to disable
+         * @return this Builder object
+         * @throws IllegalArgumentException if the depth is too big
+         * @see #setSupersampling(int, double)
+         */
+        public Builder setSupersampling(int maxDepth) {
+            return setSupersampling(maxDepth, AdaptiveSupersampler.DEFAULT_THRESHOLD);
+        }
+
         /**
          * Set multi-threading <br>
          * Parameter value meaning:
@@ -275,6 +471,67 @@ public class Camera implements Cloneable{
             return this;
         }
 
+        /**
+         * Set the size of the tiles dealt to the rendering threads (when running with raw threads).
+         * The image is split into square tiles, and a thread which has finished its own tiles
+         * steals tiles of the other threads. Zero means taking the pixels one by one.
+         * @param tileSize the size of a tile side in pixels, or zero for no tiles
+         * @return builder object itself
+         */
+        public Builder setTileSize(int tileSize) {
+            if (tileSize < 0) throw new IllegalArgumentException("Tile size must be non-negative");
+            camera.tileSize = tileSize;
+            return this;
+        }
+
+        /**
+         * Set the mode of the pixel manager which deals the pixels to the rendering threads
+         * and counts the progress. In the lock-free mode the threads don't block on each other
+         * or on progress printing - it is done by a separate reporter thread.
+         * @param lockFree true for the lock-free mode, false for the synchronized one
+         * @return builder object itself
+         */
+        public Builder setLockFreePixels(boolean lockFree) {
+            camera.lockFreePixels = lockFree;
+            return this;
+        }
+
+        /**
+         * Set the type of the executor which runs the rendering tasks. A new executor of the type
+         * is created for each rendering, with the parallelism set by {@link #setMultithreading(int)}
+         * (all the logical processors if it isn't positive), and it's shut down at the end.
+         * @param executorType the executor type, null for rendering by the multi-threading mode
+         * @return builder object itself
+         */
+        public Builder setExecutor(ExecutorType executorType) {
+            camera.executorType = executorType;
+            return this;
+        }
+
+        /**
+         * Set a shared executor to run the rendering tasks, so several cameras (renderings) may share
+         * one pool instead of each rendering taking all the cores. The amount of tasks submitted
+         * by a rendering is set by {@link #setMultithreading(int)}. The camera never shuts the executor down.
+         * @param executor the shared executor, null for not using a shared executor
+         * @return builder object itself
+         */
+        public Builder setExecutor(ExecutorService executor) {
+            camera.executor = executor;
+            return this;
+        }
+
+        /**
+         * Set a deadline for rendering by an executor. If the rendering isn't finished in time,
+         * its tasks are cancelled and {@link Camera#renderImage()} throws an exception.
+         * @param seconds the rendering deadline in seconds, 0 for no deadline
+         * @return builder object itself
+         */
+        public Builder setRenderTimeout(double seconds) {
+            if (seconds < 0) throw new IllegalArgumentException("Render timeout must be non-negative");
+            camera.renderTimeout = seconds;
+            return this;
+        }
+
         /**
          * Set the distance from the focal plane to the aperture window.
          * This method is used for depth of field effects in rendering.
@@ -305,6 +562,8 @@ public class Camera implements Cloneable{
          * This method checks for missing values and validates the camera properties.
          * @return a new Camera object
          * @throws MissingResourceException if any required values are missing
+         * @throws IllegalArgumentException if any values are invalid, or the Russian roulette or the sample budget
+         *                                  is set for a path tracer (which casts no fan-out of secondary rays)
          */
         public Camera build() {
             final String className = "Camera";
@@ -326,6 +585,12 @@ public class Camera implements Cloneable{
             if(camera.rayTracer == null) {
                 camera.rayTracer = new SimpleRayTracer(null);
             }
+            if (camera.rayTracer instanceof PathTracer && (camera.russianRoulette != 0 || camera.sampleBudget != 0))
+                throw new IllegalArgumentException("Russian roulette and sample budget do not apply to a path tracer");
+            if (camera.rayTracer instanceof SimpleRayTracer simpleRayTracer) {
+                simpleRayTracer.setAdaptiveSampling(camera.adaptiveSampling).setSampler(camera.sampler)
+                        .setRussianRoulette(camera.russianRoulette).setSampleBudget(camera.sampleBudget);
+            }
 
             return camera.clone(); // Cloneable – get a full shadow copy
         }
@@ -353,30 +618,26 @@ public class Camera implements Cloneable{
      * @return a Ray object representing the ray from the camera to the specified pixel
      */
     public List<Ray> constructRay(int nX, int nY, int j, int i) {
-        double Xj = (j - (nX-1) / 2d) * (viewPlaneWidth / nX);
-        double Yi = -(i - (nY-1) / 2d) * (viewPlaneHeight / nY);
         List<Ray> rays;
-        // calculate the point in the center of the view plane
-        Point pCenter = p0.add(vTo.scale(viewPlaneDistance));
-        Point pIJ = pCenter;
-
-        // we are calculating the ray through the pixel in three stages so we won't have a problem of zero vector.
-        if (Xj != 0) pIJ = pIJ.add(vRight.scale(Xj));
-        if (Yi != 0) pIJ = pIJ.add(vUp.scale(Yi));
-        Ray pixelRay = new Ray(pIJ.subtract(p0).normalize(), p0);
+        Point pIJ = pixelCenter(nX, nY, j, i);
         if (!antiAliasing) {
-            rays = List.of(pixelRay);
+            rays = List.of(new Ray(pIJ.subtract(p0).normalize(), p0));
         }
         else{
-            Vector pixelDirection = pixelRay.getDirection();
-            BlackBoard blackBoard = new BlackBoard(p0, pIJ.distance(p0), vUp, pixelDirection).setSize(viewPlaneWidth/nX);
-            rays = blackBoard.castRays();
+            rays = pixelBlackBoard(pIJ, viewPlaneWidth / nX, (long) i * nX + j).castRays();
         }
         // if there is depth of field, we need to adjust the rays to pass through the aperture window
         if(dOFdistance != 0) {
-            BlackBoard apertureWindow = new BlackBoard(p0.add(vTo.scale(dOFdistance)),
-                    dOFdistance, vUp.scale(-1), vTo.scale(-1))
-                    .setCircular(true).setDoF(true).setSize(dOFdistance/2);
+            BlackBoard apertureWindow = apertureWindow();
+            if (antiAliasing) {
+                // a single lens sample for each pixel sample (a four-dimensional sample) -
+                // the samples of the pixel cover both anti-aliasing and depth of field
+                List<Point> focalPoints = new ArrayList<>(rays.size());
+                for (Ray ray : rays)
+                    focalPoints.add(ray.getPoint(dOFdistance / vTo.dotProduct(ray.getDirection())));
+                return apertureWindow.setNumSamples(antiAliasingSamples).setScramble(~((long) i * nX + j))
+                        .castRays(focalPoints);
+            }
             List<Ray> apertureRays = new ArrayList<>();
             // for each ray, we cast rays through the aperture window
             for (Ray ray : rays){
@@ -386,16 +647,59 @@ public class Camera implements Cloneable{
         }
         return rays;
     }
+    /**
+     * Creates the blackboard of the aperture window of depth of field.
+     * @return the blackboard of the aperture window
+     */
+    private BlackBoard apertureWindow() {
+        return new BlackBoard(p0.add(vTo.scale(dOFdistance)), dOFdistance, vUp.scale(-1), vTo.scale(-1))
+                .setCircular(true).setDoF(true).setSize(dOFdistance / 2).setNumSamples(dOFSamples)
+                .setSampler(sampler);
+    }
+
+    /**
+     * Creates the anti-aliasing blackboard of a pixel.
+     * @param pIJ - the center of the pixel on the view plane
+     * @param size - the size of the pixel
+     * @param index - the index of the pixel, scrambling the sample pattern of neighbouring pixels
+     * @return the blackboard covering the pixel
+     */
+    private BlackBoard pixelBlackBoard(Point pIJ, double size, long index) {
+        return new BlackBoard(p0, pIJ.distance(p0), vUp, pIJ.subtract(p0))
+                .setSize(size).setNumSamples(antiAliasingSamples).setScramble(index).setSampler(sampler);
+    }
+
+    /**
+     * Calculates the center of a pixel on the view plane.
+     * @param nX - number of pixels in the x direction
+     * @param nY - number of pixels in the y direction
+     * @param j - pixel index in the x direction
+     * @param i - pixel index in the y direction
+     * @return the center of the pixel
+     */
+    private Point pixelCenter(int nX, int nY, int j, int i) {
+        double Xj = (j - (nX-1) / 2d) * (viewPlaneWidth / nX);
+        double Yi = -(i - (nY-1) / 2d) * (viewPlaneHeight / nY);
+        // calculate the point in the center of the view plane
+        Point pIJ = p0.add(vTo.scale(viewPlaneDistance));
+        // we are calculating the point through the pixel in three stages so we won't have a problem of zero vector.
+        if (Xj != 0) pIJ = pIJ.add(vRight.scale(Xj));
+        if (Yi != 0) pIJ = pIJ.add(vUp.scale(Yi));
+        return pIJ;
+    }
+
     /**
      *the function casts rays through every pixel on the view plane
      * @return this camera object
+     * @throws CancellationException if the rendering by an executor is cancelled or interrupted
+     * @throws IllegalStateException if the rendering by an executor misses its deadline
      */
     public Camera renderImage() {
-        pixelManager = new PixelManager(nY, nX, printInterval);
+        if (executorType != null || executor != null) return renderImageExecutor();
         return switch (threadsCount) {
             case 0 -> renderImageNoThreads();
             case -1 -> renderImageStream();
-            default -> renderImageRawThreads();
+            default -> tileSize == 0 ? renderImageRawThreads() : renderImageTiles();
         };
     }
     /**
@@ -429,19 +733,150 @@ public class Camera implements Cloneable{
 
     /**
      * Casts a ray through a specific pixel on the view plane and writes the color to the image.
-     * This method constructs a ray for the specified pixel and uses the ray tracer to get the color.
      * @param j - pixel index in the x direction
      * @param i - pixel index in the y direction
      */
     private void castRay(int j, int i){
+        imageWriter.writePixel(j, i, calcPixelColor(j, i));
+    }
+
+    /**
+     * Calculates the color of a specific pixel on the view plane.
+     * This method constructs the rays for the specified pixel and uses the ray tracer to get their average color.
+     * @param j - pixel index in the x direction
+     * @param i - pixel index in the y direction
+     * @return the color of the pixel
+     */
+    private Color calcPixelColor(int j, int i){
+        if (varianceTolerance > 0) return calcPixelColorByVariance(j, i);
+        if (isSupersampling()) return supersampler(j, i).pixelColor(j, i);
+        if (antiAliasing && adaptiveSampling && dOFdistance == 0) {
+            Double3 average = pixelBlackBoard(pixelCenter(nX, nY, j, i), viewPlaneWidth / nX, (long) i * nX + j)
+                    .setAdaptive(adaptiveSampling).average(ray -> rayTracer.traceRay(ray).rgb, BlackBoard.COLOR_TOLERANCE);
+            return new Color(average.d1(), average.d2(), average.d3());
+        }
         List<Ray> pixelRays = constructRay(nX, nY, j, i);
         Color color = Color.BLACK; // Default color if no rays are traced
         // there are many rays if anti-aliasing is enabled or depth of field is enabled
         for (Ray pixelRay : pixelRays) {
             color = color.add(rayTracer.traceRay(pixelRay));
         }
-        imageWriter.writePixel(j, i, color.scale(1d /pixelRays.size()));
-        pixelManager.pixelDone();
+        return color.scale(1d /pixelRays.size());
+    }
+
+    /**
+     * Checks whether the pixels are rendered in batches by a wavefront ray tracer
+     * @return true if the ray tracer is a wavefront ray tracer (and the pixels are not sampled adaptively)
+     */
+    private boolean isWavefront() {
+        return rayTracer instanceof WavefrontRayTracer && !isSupersampling() && varianceTolerance == 0
+                && !(antiAliasing && adaptiveSampling && dOFdistance == 0);
+    }
+
+    /**
+     * Calculates the colors of a rectangle of pixels by the wavefront ray tracer -
+     * all the rays of the pixels are traced together as a single batch
+     * @param col0 - first pixel column of the rectangle
+     * @param row0 - first pixel row of the rectangle
+     * @param col1 - column after the last pixel column of the rectangle
+     * @param row1 - row after the last pixel row of the rectangle
+     * @param rgb - the packed colors of the pixels, row by row
+     */
+    private void calcWavefrontColors(int col0, int row0, int col1, int row1, int[] rgb) {
+        List<Ray> rays = new ArrayList<>();
+        int[] ends = new int[(col1 - col0) * (row1 - row0)]; // the end of the rays of each pixel
+        int p = 0;
+        for (int i = row0; i < row1; ++i)
+            for (int j = col0; j < col1; ++j) {
+                rays.addAll(constructRay(nX, nY, j, i));
+                ends[p++] = rays.size();
+            }
+        Color[] colors = ((WavefrontRayTracer) rayTracer).traceRays(rays);
+        for (int pixel = 0, start = 0; pixel < ends.length; start = ends[pixel++]) {
+            Color color = Color.BLACK;
+            for (int r = start; r < ends[pixel]; ++r) color = color.add(colors[r]);
+            rgb[pixel] = color.scale(1d / (ends[pixel] - start)).getRGB();
+        }
+    }
+
+    /**
+     * Calculates the color of a pixel by variance-driven sampling - random samples of the pixel are traced
+     * in rounds until the confidence interval of the mean color is within the tolerance
+     * (or the maximal amount of samples is reached). The variance is tracked by Welford's algorithm.
+     * @param j - pixel index in the x direction
+     * @param i - pixel index in the y direction
+     * @return the color of the pixel
+     */
+    private Color calcPixelColorByVariance(int j, int i) {
+        BlackBoard pixel = pixelBlackBoard(pixelCenter(nX, nY, j, i), viewPlaneWidth / nX, (long) i * nX + j);
+        BlackBoard aperture = dOFdistance == 0 ? null : apertureWindow();
+        double[] mean = new double[3], m2 = new double[3];
+        int count = 0;
+        do {
+            for (int s = 0; s < VARIANCE_ROUND && count < varianceMaxSamples; ++s) {
+                Ray ray = pixel.castRandomRay();
+                if (aperture != null)
+                    ray = aperture.setSingle(ray.getPoint(dOFdistance / vTo.dotProduct(ray.getDirection())))
+                            .castRandomRay();
+                Double3 rgb = rayTracer.traceRay(ray).rgb;
+                double[] sample = { rgb.d1(), rgb.d2(), rgb.d3() };
+                ++count;
+                for (int c = 0; c < 3; ++c) {
+                    double delta = sample[c] - mean[c];
+                    mean[c] += delta / count;
+                    m2[c] += delta * (sample[c] - mean[c]);
+                }
+            }
+        } while (count < varianceMaxSamples && !isConverged(m2, count));
+        return new Color(mean[0], mean[1], mean[2]);
+    }
+
+    /**
+     * Checks whether the confidence interval of the mean of the samples is within the variance tolerance
+     * (at least two rounds of samples are required)
+     * @param m2 - the sums of the squared differences from the mean of each color component
+     * @param count - the amount of samples
+     * @return true if the half-width of the confidence interval of each color component is within the tolerance
+     */
+    private boolean isConverged(double[] m2, int count) {
+        if (count < 2 * VARIANCE_ROUND) return false;
+        // the half-width of the interval is z * sqrt(variance / count), and the variance is m2 / (count - 1)
+        double limit = varianceTolerance / VARIANCE_CONFIDENCE;
+        limit *= limit * count * (count - 1);
+        return m2[0] <= limit && m2[1] <= limit && m2[2] <= limit;
+    }
+
+    /**
+     * Checks whether the pixels are rendered by the recursive adaptive supersampling
+     * @return true if the supersampling is on (and there is no depth of field nor variance-driven sampling)
+     */
+    private boolean isSupersampling() {
+        return supersamplingDepth >= 0 && dOFdistance == 0 && varianceTolerance == 0;
+    }
+
+    /**
+     * Creates a supersampler for a block of pixels - the samples are shared by the pixels of the block
+     * @param col0 - first pixel column of the block
+     * @param row0 - first pixel row of the block
+     * @return the supersampler
+     */
+    private AdaptiveSupersampler supersampler(int col0, int row0) {
+        return new AdaptiveSupersampler(supersamplingDepth, supersamplingThreshold, col0, row0, this::traceViewPlane);
+    }
+
+    /**
+     * Traces a ray from the camera through a point of the view plane
+     * @param x - the column coordinate of the point (in pixels, the left edge of pixel j is at j)
+     * @param y - the row coordinate of the point (in pixels, the top edge of pixel i is at i)
+     * @return the color of the ray
+     */
+    private Color traceViewPlane(double x, double y) {
+        double Xj = (x - nX / 2d) * (viewPlaneWidth / nX);
+        double Yi = -(y - nY / 2d) * (viewPlaneHeight / nY);
+        Point point = p0.add(vTo.scale(viewPlaneDistance));
+        if (!Util.isZero(Xj)) point = point.add(vRight.scale(Xj));
+        if (!Util.isZero(Yi)) point = point.add(vUp.scale(Yi));
+        return rayTracer.traceRay(new Ray(point.subtract(p0).normalize(), p0));
     }
 
     /**
@@ -465,9 +900,14 @@ public class Camera implements Cloneable{
      * @return the camera object itself
      */
     private Camera renderImageStream() {
+        pixelManager = new PixelManager(nY, nX, lockFreePixels, printInterval);
         IntStream.range(0, nY).parallel()
                 .forEach(i -> IntStream.range(0, nX).parallel()
-                        .forEach(j -> castRay(j, i)));
+                        .forEach(j -> {
+                            castRay(j, i);
+                            pixelManager.pixelDone();
+                        }));
+        pixelManager.finish();
         return this;
     }
     /**
@@ -475,9 +915,23 @@ public class Camera implements Cloneable{
      * @return the camera object itself
      */
     private Camera renderImageNoThreads() {
-        for (int i = 0; i < nY; ++i)
-            for (int j = 0; j < nX; ++j)
-                castRay(j, i);
+        pixelManager = new PixelManager(nY, nX, lockFreePixels, printInterval);
+        int[] row = new int[nX];
+        for (int i = 0; i < nY; ++i) {
+            if (isWavefront()) {
+                calcWavefrontColors(0, i, nX, i + 1, row);
+                for (int j = 0; j < nX; ++j) pixelManager.pixelDone();
+            } else {
+                // the supersampled pixels of a row share their corners
+                AdaptiveSupersampler block = isSupersampling() ? supersampler(0, i) : null;
+                for (int j = 0; j < nX; ++j) {
+                    row[j] = (block != null ? block.pixelColor(j, i) : calcPixelColor(j, i)).getRGB();
+                    pixelManager.pixelDone();
+                }
+            }
+            imageWriter.writeRow(i, row);
+        }
+        pixelManager.finish();
         return this;
     }
     /**
@@ -485,17 +939,175 @@ public class Camera implements Cloneable{
      * @return the camera object itself
      */
     private Camera renderImageRawThreads() {
+        pixelManager = new PixelManager(nY, nX, lockFreePixels, printInterval);
         var threads = new LinkedList<Thread>();
-        while (threadsCount-- > 0)
+        for (int t = 0; t < threadsCount; ++t)
             threads.add(new Thread(() -> {
                 renderer.PixelManager.Pixel pixel;
-                while ((pixel = pixelManager.nextPixel()) != null)
+                while (!Thread.currentThread().isInterrupted() && (pixel = pixelManager.nextPixel()) != null) {
                     castRay(pixel.col(), pixel.row());
+                    pixelManager.pixelDone();
+                }
             }));
         for (var thread : threads) thread.start();
         try {
             for (var thread : threads) thread.join();
-        } catch (InterruptedException ignored) {}
+        } catch (InterruptedException e) {
+            for (var thread : threads) thread.interrupt();
+            Thread.currentThread().interrupt();
+        } finally {
+            pixelManager.finish(); // stops the progress reporting even if the rendering is interrupted
+        }
+        return this;
+    }
+
+    /**
+     * Render image using multi-threading by raw threads which render the image tile by tile,
+     * stealing tiles from each other when they run out of their own
+     * @return the camera object itself
+     */
+    private Camera renderImageTiles() {
+        TileScheduler scheduler = new TileScheduler(nY, nX, tileSize, threadsCount, printInterval);
+        var threads = new LinkedList<Thread>();
+        for (int t = 0; t < threadsCount; ++t) {
+            TileScheduler.Worker worker = scheduler.worker(t);
+            threads.add(new Thread(() -> renderTiles(worker)));
+        }
+        for (var thread : threads) thread.start();
+        try {
+            for (var thread : threads) thread.join();
+        } catch (InterruptedException e) {
+            for (var thread : threads) thread.interrupt();
+            Thread.currentThread().interrupt();
+        }
         return this;
     }
-}
\ No newline at end of file
+
+    /**
+     * Render the tiles of a rendering thread (or task) until there are no more tiles,
+     * or the thread is interrupted, or the rendering is cancelled
+     * @param worker the scheduling state of the thread
+     */
+    private void renderTiles(TileScheduler.Worker worker) {
+        AtomicBoolean cancelled = renderCancelled;
+        int tileSide = Math.max(tileSize, 1);
+        int[] rgb = new int[tileSide * tileSide]; // the tile's pixels, written to the image at once
+        TileScheduler.Tile tile;
+        while (!Thread.currentThread().isInterrupted() && (cancelled == null || !cancelled.get())
+                && (tile = worker.nextTile()) != null) {
+            if (isWavefront())
+                calcWavefrontColors(tile.col0(), tile.row0(), tile.col1(), tile.row1(), rgb);
+            else {
+                int k = 0;
+                // the supersampled pixels of a tile share their corners
+                AdaptiveSupersampler block = isSupersampling() ? supersampler(tile.col0(), tile.row0()) : null;
+                for (int i = tile.row0(); i < tile.row1(); ++i)
+                    for (int j = tile.col0(); j < tile.col1(); ++j)
+                        rgb[k++] = (block != null ? block.pixelColor(j, i) : calcPixelColor(j, i)).getRGB();
+            }
+            imageWriter.writeTile(tile.col0(), tile.row0(), tile.col1() - tile.col0(), tile.row1() - tile.row0(), rgb);
+            worker.tileDone(tile);
+        }
+    }
+
+    /**
+     * Render image by tasks running on an executor - either a shared one or a new one of the set type.
+     * Each task renders tiles of the image, stealing tiles from the other tasks when it runs out of its own.
+     * An exception thrown by a task, a missed deadline or an interrupt cancels the rendering: the tasks stop
+     * by a cancellation flag (an interrupt does not reach the tasks of every executor), the tasks which have
+     * not started yet are withdrawn from the executor, and the rendering throws once the started ones are done.
+     * @return the camera object itself
+     * @throws CancellationException if the rendering is cancelled or interrupted
+     * @throws IllegalStateException if the rendering misses its deadline
+     */
+    private Camera renderImageExecutor() {
+        int tasks = threadsCount > 0 ? threadsCount : Runtime.getRuntime().availableProcessors();
+        TileScheduler scheduler = new TileScheduler(nY, nX, Math.max(tileSize, 1), tasks, printInterval);
+        ExecutorService service = executor != null ? executor : switch (executorType) {
+            case FIXED_POOL -> Executors.newFixedThreadPool(tasks);
+            case FORK_JOIN -> new ForkJoinPool(tasks);
+            case VIRTUAL_THREADS -> Executors.newVirtualThreadPerTaskExecutor();
+        };
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        renderCancelled = cancelled; // published before the submission, so the rendering may be cancelled anytime
+        // each task is claimed once - by itself when it starts, or by the cancellation which withdraws it
+        AtomicIntegerArray claimed = new AtomicIntegerArray(tasks);
+        CountDownLatch finished = new CountDownLatch(tasks);
+        List<Future<?>> futures = new ArrayList<>(tasks);
+        try {
+            for (int t = 0; t < tasks; ++t) {
+                TileScheduler.Worker worker = scheduler.worker(t);
+                int task = t;
+                futures.add(service.submit(() -> {
+                    if (!claimed.compareAndSet(task, 0, 1)) return; // withdrawn before it started
+                    try {
+                        renderTiles(worker);
+                    } finally {
+                        finished.countDown();
+                    }
+                }));
+            }
+            long deadline = System.nanoTime() + (long) (renderTimeout * 1e9);
+            for (Future<?> future : futures)
+                if (renderTimeout == 0) future.get();
+                else future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (cancelled.get()) throw new CancellationException("Rendering cancelled");
+        } catch (ExecutionException e) {
+            cancel(cancelled, futures, claimed, finished);
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw new IllegalStateException("Rendering task failed", e.getCause());
+        } catch (TimeoutException e) {
+            cancel(cancelled, futures, claimed, finished);
+            throw new IllegalStateException("Rendering deadline of " + renderTimeout + " seconds exceeded", e);
+        } catch (InterruptedException e) {
+            cancel(cancelled, futures, claimed, finished);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Rendering interrupted");
+        } catch (RuntimeException | Error e) {
+            // a cancellation, or a task which couldn't be submitted
+            cancel(cancelled, futures, claimed, finished);
+            throw e;
+        } finally {
+            renderCancelled = null;
+            if (service != executor) service.shutdownNow();
+        }
+        return this;
+    }
+
+    /**
+     * Cancel the rendering by an executor which is in progress (may be called from any thread).
+     * The rendering tasks stop after their current tiles, and {@link #renderImage()} throws
+     * {@link CancellationException}. Does nothing if there is no such rendering.
+     */
+    public void cancelRendering() {
+        AtomicBoolean cancelled = renderCancelled;
+        if (cancelled != null) cancelled.set(true);
+    }
+
+    /**
+     * Cancel the rendering tasks - withdraw the tasks which have not started (or not been submitted),
+     * and wait for the started ones to finish
+     * @param cancelled the cancellation flag of the tasks
+     * @param futures   the futures of the submitted tasks
+     * @param claimed   the claims of the tasks - a task is claimed by itself when it starts
+     * @param finished  the count down of the tasks
+     */
+    private static void cancel(AtomicBoolean cancelled, List<Future<?>> futures, AtomicIntegerArray claimed,
+                               CountDownLatch finished) {
+        cancelled.set(true);
+        for (Future<?> future : futures) future.cancel(false);
+        for (int t = 0; t < claimed.length(); ++t)
+            if (claimed.compareAndSet(t, 0, 1)) finished.countDown(); // withdrawn - it will never run
+        boolean interrupted = false;
+        while (true) {
+            try {
+                finished.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true; // the caller's interrupt is restored once the tasks are done
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+}
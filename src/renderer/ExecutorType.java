@@ -0,0 +1,13 @@
+package renderer;
+
+/**
+ * Types of the executors which may run the rendering tasks of a camera
+ */
+public enum ExecutorType {
+   /** Fixed pool of platform threads */
+   FIXED_POOL,
+   /** Work-stealing fork/join pool */
+   FORK_JOIN,
+   /** A new virtual thread for each rendering task */
+   VIRTUAL_THREADS;
+}
@@ -0,0 +1,394 @@
+package renderer;
+
+import geometries.BoundingBox;
+import geometries.Geometries;
+import geometries.Intersectable;
+import geometries.Intersectable.Intersection;
+import primitives.*;
+import scene.Scene;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Ray tracer using a regular (uniform) grid for accelerating the intersections.
+ * The bounded geometries of the scene are voxelized into a 3D grid of cells,
+ * and each ray walks through the cells it crosses (by the 3D-DDA algorithm),
+ * testing only the geometries in these cells.
+ * Unbounded geometries (planes, tubes) are tested for every ray.
+ * The shading model is the same as in {@link SimpleRayTracer}.
+ */
+public class GridRayTracer extends SimpleRayTracer {
+    /**
+     * Average amount of geometries per grid cell, used for choosing the grid resolution
+     */
+    private static final double DENSITY = 3;
+    /**
+     * Maximum amount of cells along each axis of the grid
+     */
+    private static final int MAX_RESOLUTION = 128;
+
+    /**
+     * The grid, built on the first traced ray (the scene may be filled after the ray tracer is created)
+     */
+    private volatile Grid grid = null;
+
+    /**
+     * Constructs a GridRayTracer object with the specified scene.
+     *
+     * @param scene the scene to be rendered
+     */
+    public GridRayTracer(Scene scene) {
+        super(scene);
+    }
+
+    @Override
+    protected Intersection findClosestIntersection(Ray ray) {
+        ClosestHit query = new ClosestHit(ray);
+        getGrid().traverse(query);
+        return query.nearest;
+    }
+
+    @Override
+    protected Double3 calculateTransparency(Ray ray, double maxDistance) {
+        Transparency query = new Transparency(ray, maxDistance);
+        getGrid().traverse(query);
+        return query.ktr;
+    }
+
+    /**
+     * Returns the grid of the scene's geometries.
+     * The grid is (re)built if it hasn't been built yet or the scene's geometries have changed.
+     *
+     * @return the grid
+     */
+    private Grid getGrid() {
+        Grid current = grid;
+        if (current == null || !current.isBuiltFor(scene.geometries)) {
+            synchronized (this) {
+                current = grid;
+                if (current == null || !current.isBuiltFor(scene.geometries))
+                    grid = current = new Grid(scene.geometries);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Per-thread mailbox for testing each geometry only once per ray,
+     * even if it is in several cells along the ray
+     */
+    private static final class Mailbox {
+        /** The last ray stamp each geometry has been tested with */
+        final int[] stamps;
+        /** The stamp of the current ray */
+        int stamp = 0;
+
+        /**
+         * Constructs a mailbox
+         * @param size amount of geometries in the grid
+         */
+        Mailbox(int size) { stamps = new int[size]; }
+    }
+
+    /**
+     * Uniform grid of the bounded geometries of a geometries collection
+     */
+    private static final class Grid {
+        /** The collection the grid was built for */
+        private final Geometries source;
+        /** Amount of geometries in the collection when the grid was built */
+        private final int count;
+        /** The bounded geometries, voxelized into the cells */
+        private final Intersectable[] bounded;
+        /** The unbounded geometries, tested for every ray */
+        private final Intersectable[] unbounded;
+        /** The bounding box of all the bounded geometries */
+        private final BoundingBox box;
+        /** Amount of cells along each axis */
+        private final int nx, ny, nz;
+        /** Cell size along each axis */
+        private final double cellX, cellY, cellZ;
+        /** Indices of the bounded geometries in each cell (null for an empty cell) */
+        private final int[][] cells;
+        /** Mailbox of each rendering thread */
+        private final ThreadLocal<Mailbox> mailbox;
+
+        /**
+         * Voxelizes the geometries of the collection into a grid
+         * @param geometries the collection of geometries
+         */
+        Grid(Geometries geometries) {
+            source = geometries;
+            List<Intersectable> all = geometries.getGeometries();
+            count = all.size();
+            List<Intersectable> boundedList = new ArrayList<>();
+            List<Intersectable> unboundedList = new ArrayList<>();
+            BoundingBox sceneBox = null;
+            for (Intersectable geometry : all) {
+                BoundingBox b = geometry.getBoundingBox();
+                if (b.isInfinite())
+                    unboundedList.add(geometry);
+                else {
+                    boundedList.add(geometry);
+                    sceneBox = sceneBox == null ? b : sceneBox.union(b);
+                }
+            }
+            bounded = boundedList.toArray(new Intersectable[0]);
+            unbounded = unboundedList.toArray(new Intersectable[0]);
+            mailbox = ThreadLocal.withInitial(() -> new Mailbox(bounded.length));
+
+            if (sceneBox == null) {
+                box = null;
+                nx = ny = nz = 0;
+                cellX = cellY = cellZ = 0;
+                cells = null;
+                return;
+            }
+
+            // a flat scene (e.g. triangles in one plane) still gets a positive cell size on each axis
+            double sx = sceneBox.maxX - sceneBox.minX;
+            double sy = sceneBox.maxY - sceneBox.minY;
+            double sz = sceneBox.maxZ - sceneBox.minZ;
+            double minSize = Math.max(Math.max(sx, sy), sz) / MAX_RESOLUTION;
+            if (minSize == 0) minSize = 1;
+            sx = Math.max(sx, minSize);
+            sy = Math.max(sy, minSize);
+            sz = Math.max(sz, minSize);
+            box = new BoundingBox(sceneBox.minX, sceneBox.minY, sceneBox.minZ,
+                    sceneBox.minX + sx, sceneBox.minY + sy, sceneBox.minZ + sz);
+
+            // cells per unit length, so there are about DENSITY geometries per cell
+            double k = Math.cbrt(DENSITY * bounded.length / (sx * sy * sz));
+            nx = resolution(sx * k);
+            ny = resolution(sy * k);
+            nz = resolution(sz * k);
+            cellX = sx / nx;
+            cellY = sy / ny;
+            cellZ = sz / nz;
+
+            // first pass counts the geometries in each cell, second pass fills the cells
+            int[] sizes = new int[nx * ny * nz];
+            for (Intersectable geometry : bounded)
+                forEachCell(geometry.getBoundingBox(), cell -> ++sizes[cell]);
+            cells = new int[sizes.length][];
+            for (int i = 0; i < sizes.length; ++i)
+                if (sizes[i] != 0) cells[i] = new int[sizes[i]];
+            int[] filled = new int[sizes.length];
+            for (int i = 0; i < bounded.length; ++i) {
+                int index = i;
+                forEachCell(bounded[i].getBoundingBox(), cell -> cells[cell][filled[cell]++] = index);
+            }
+        }
+
+        /**
+         * Checks whether the grid is up-to-date for the given collection.
+         * Geometries are only added to a collection, so a changed size means the collection has changed.
+         *
+         * @param geometries the collection
+         * @return true if the grid was built for the current state of the collection
+         */
+        boolean isBuiltFor(Geometries geometries) {
+            return source == geometries && count == geometries.getGeometries().size();
+        }
+
+        /**
+         * Calculates the amount of cells along an axis
+         * @param cells the ideal (fractional) amount of cells
+         * @return the amount of cells, between 1 and MAX_RESOLUTION
+         */
+        private static int resolution(double cells) {
+            return (int) Math.max(1, Math.min(MAX_RESOLUTION, Math.ceil(cells)));
+        }
+
+        /**
+         * Calculates the index of the cell containing a coordinate along an axis
+         * @param value the coordinate
+         * @param min   the minimal coordinate of the grid
+         * @param cell  the cell size
+         * @param n     the amount of cells
+         * @return the cell index, clamped into the grid
+         */
+        private static int cellIndex(double value, double min, double cell, int n) {
+            int i = (int) Math.floor((value - min) / cell);
+            return i < 0 ? 0 : i >= n ? n - 1 : i;
+        }
+
+        /**
+         * Calls the action for the index of each cell overlapping the box
+         * @param b      the box
+         * @param action the action on the cell index
+         */
+        private void forEachCell(BoundingBox b, IntConsumer action) {
+            int x0 = cellIndex(b.minX, box.minX, cellX, nx), x1 = cellIndex(b.maxX, box.minX, cellX, nx);
+            int y0 = cellIndex(b.minY, box.minY, cellY, ny), y1 = cellIndex(b.maxY, box.minY, cellY, ny);
+            int z0 = cellIndex(b.minZ, box.minZ, cellZ, nz), z1 = cellIndex(b.maxZ, box.minZ, cellZ, nz);
+            for (int z = z0; z <= z1; ++z)
+                for (int y = y0; y <= y1; ++y)
+                    for (int x = x0; x <= x1; ++x)
+                        action.accept((z * ny + y) * nx + x);
+        }
+
+        /**
+         * Walks the ray of a query through the grid and passes the geometries in the cells it crosses
+         * to the query. The walk stops as soon as the following cells lie beyond the query's limit
+         * or the query is {@link Query#done() done}.
+         *
+         * @param query the query
+         */
+        void traverse(Query query) {
+            // unbounded geometries first - they may shorten the walk
+            for (Intersectable geometry : unbounded) {
+                query.test(geometry);
+                if (query.done()) return;
+            }
+            if (box == null) return;
+
+            Ray ray = query.ray;
+            double tEnter = box.entryDistance(ray, query.limit());
+            if (tEnter == Double.POSITIVE_INFINITY) return;
+
+            Double3 head = ray.getHead().getXYZ();
+            Double3 dir = ray.getDirection().getXYZ();
+            double dx = dir.d1(), dy = dir.d2(), dz = dir.d3();
+            int ix = cellIndex(head.d1() + dx * tEnter, box.minX, cellX, nx);
+            int iy = cellIndex(head.d2() + dy * tEnter, box.minY, cellY, ny);
+            int iz = cellIndex(head.d3() + dz * tEnter, box.minZ, cellZ, nz);
+
+            // step direction, distance between consecutive cell borders, and distance to the next border
+            int stepX = dx > 0 ? 1 : dx < 0 ? -1 : 0;
+            int stepY = dy > 0 ? 1 : dy < 0 ? -1 : 0;
+            int stepZ = dz > 0 ? 1 : dz < 0 ? -1 : 0;
+            double deltaX = stepX == 0 ? Double.POSITIVE_INFINITY : cellX / Math.abs(dx);
+            double deltaY = stepY == 0 ? Double.POSITIVE_INFINITY : cellY / Math.abs(dy);
+            double deltaZ = stepZ == 0 ? Double.POSITIVE_INFINITY : cellZ / Math.abs(dz);
+            double nextX = stepX == 0 ? Double.POSITIVE_INFINITY
+                    : (box.minX + (ix + (stepX > 0 ? 1 : 0)) * cellX - head.d1()) / dx;
+            double nextY = stepY == 0 ? Double.POSITIVE_INFINITY
+                    : (box.minY + (iy + (stepY > 0 ? 1 : 0)) * cellY - head.d2()) / dy;
+            double nextZ = stepZ == 0 ? Double.POSITIVE_INFINITY
+                    : (box.minZ + (iz + (stepZ > 0 ? 1 : 0)) * cellZ - head.d3()) / dz;
+
+            Mailbox visited = mailbox.get();
+            int stamp = ++visited.stamp;
+            while (true) {
+                int[] cell = cells[(iz * ny + iy) * nx + ix];
+                if (cell != null)
+                    for (int index : cell)
+                        if (visited.stamps[index] != stamp) {
+                            visited.stamps[index] = stamp;
+                            query.test(bounded[index]);
+                            if (query.done()) return;
+                        }
+
+                // the following cells are beyond the limit - either the maximum distance
+                // or the closest intersection found so far
+                if (Math.min(nextX, Math.min(nextY, nextZ)) >= query.limit()) break;
+
+                if (nextX <= nextY && nextX <= nextZ) {
+                    ix += stepX;
+                    if (ix < 0 || ix >= nx) break;
+                    nextX += deltaX;
+                } else if (nextY <= nextZ) {
+                    iy += stepY;
+                    if (iy < 0 || iy >= ny) break;
+                    nextY += deltaY;
+                } else {
+                    iz += stepZ;
+                    if (iz < 0 || iz >= nz) break;
+                    nextZ += deltaZ;
+                }
+            }
+        }
+    }
+
+    /**
+     * A query of a ray against the geometries met during the grid walk
+     */
+    private abstract static class Query {
+        /** The ray */
+        final Ray ray;
+        /** The distance from the ray head up to which geometries are of interest */
+        double limit;
+
+        /**
+         * Constructs the query
+         * @param ray         the ray
+         * @param maxDistance the maximum distance from the ray head
+         */
+        Query(Ray ray, double maxDistance) {
+            this.ray = ray;
+            this.limit = maxDistance;
+        }
+
+        /**
+         * Tests the ray against a geometry and accumulates the result
+         * @param geometry the geometry
+         */
+        abstract void test(Intersectable geometry);
+
+        /**
+         * The distance up to which geometries are still of interest
+         * @return the distance
+         */
+        double limit() { return limit; }
+
+        /**
+         * Checks whether the result is already known so the walk may stop
+         * @return true if no further geometry can change the result
+         */
+        boolean done() { return false; }
+    }
+
+    /**
+     * Query finding the closest intersection of the ray - the limit shrinks to the distance
+     * of the closest intersection found so far
+     */
+    private static final class ClosestHit extends Query {
+        /** The closest intersection, null if there is none */
+        Intersection nearest = null;
+
+        /**
+         * Constructs the query
+         * @param ray the ray
+         */
+        ClosestHit(Ray ray) { super(ray, Double.POSITIVE_INFINITY); }
+
+        @Override
+        void test(Intersectable geometry) {
+            Intersection candidate = geometry.calculateClosestIntersection(ray, limit);
+            if (candidate == null) return;
+            double distance = candidate.t;
+            if (distance < limit) {
+                nearest = candidate;
+                limit = distance;
+            }
+        }
+    }
+
+    /**
+     * Query calculating the transparency of the geometries along a shadow ray -
+     * the walk stops as soon as an opaque geometry blocks the ray
+     */
+    private static final class Transparency extends Query {
+        /** The accumulated transparency */
+        Double3 ktr = Double3.ONE;
+
+        /**
+         * Constructs the query
+         * @param ray         the shadow ray
+         * @param maxDistance the distance to the light source
+         */
+        Transparency(Ray ray, double maxDistance) { super(ray, maxDistance); }
+
+        @Override
+        void test(Intersectable geometry) {
+            Double3 kt = geometry.calculateTransparency(ray, limit);
+            if (kt != Double3.ONE) ktr = ktr.product(kt);
+        }
+
+        @Override
+        boolean done() { return ktr.equals(Double3.ZERO); }
+    }
+}
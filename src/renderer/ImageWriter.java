@@ -1,6 +1,7 @@
 package renderer;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.*;
 
 import javax.imageio.ImageIO;
@@ -28,6 +29,11 @@ final class ImageWriter {
 
     /** Image generation buffer (the matrix of the pixels) */
     private final BufferedImage image;
+    /**
+     * The array backing the image buffer - the packed pixels row by row,
+     * written directly without going through the image's color model
+     */
+    private final int[]         raster;
 
     // ***************** Constructors ********************** //
     /**
@@ -40,6 +46,7 @@ final class ImageWriter {
         this.nY = nY;
 
         image   = new BufferedImage(nX, nY, BufferedImage.TYPE_INT_RGB);
+        raster  = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
     }
 
     // ***************** Getters ********************** //
@@ -78,6 +85,46 @@ final class ImageWriter {
      * @param yIndex Y axis index of the pixel
      * @param color  final color of the pixel
      */
-    void writePixel(int xIndex, int yIndex, Color color) { image.setRGB(xIndex, yIndex, color.getColor().getRGB()); }
+    void writePixel(int xIndex, int yIndex, Color color) { raster[yIndex * nX + xIndex] = color.getRGB(); }
+
+    /**
+     * The function writePixel writes a packed color of a specific pixel into pixel
+     * color matrix
+     * @param xIndex X axis index of the pixel
+     * @param yIndex Y axis index of the pixel
+     * @param rgb    final packed (A)RGB color of the pixel, see {@link Color#getRGB()}
+     */
+    void writePixel(int xIndex, int yIndex, int rgb) { raster[yIndex * nX + xIndex] = rgb; }
+
+    /**
+     * The function writeRow writes the packed colors of a whole row of pixels into
+     * pixel color matrix
+     * @param yIndex Y axis index of the row
+     * @param rgb    final packed (A)RGB colors of the row's pixels, at least nX of them
+     */
+    void writeRow(int yIndex, int[] rgb) { System.arraycopy(rgb, 0, raster, yIndex * nX, nX); }
+
+    /**
+     * The function writeTile writes the packed colors of a rectangle of pixels into
+     * pixel color matrix
+     * @param xIndex X axis index of the rectangle's first pixel
+     * @param yIndex Y axis index of the rectangle's first pixel
+     * @param width  the amount of pixels in a row of the rectangle
+     * @param height the amount of rows of the rectangle
+     * @param rgb    final packed (A)RGB colors of the rectangle's pixels, row by row
+     */
+    void writeTile(int xIndex, int yIndex, int width, int height, int[] rgb) {
+        for (int row = 0; row < height; ++row)
+            System.arraycopy(rgb, row * width, raster, (yIndex + row) * nX + xIndex, width);
+    }
+
+    /**
+     * The function readPixel reads the packed color of a specific pixel from pixel
+     * color matrix
+     * @param xIndex X axis index of the pixel
+     * @param yIndex Y axis index of the pixel
+     * @return the packed RGB color of the pixel (without alpha)
+     */
+    int readPixel(int xIndex, int yIndex) { return raster[yIndex * nX + xIndex] & 0xFFFFFF; }
 
 }
@@ -0,0 +1,159 @@
+package renderer;
+
+import geometries.Intersectable.Intersection;
+import primitives.*;
+import scene.Scene;
+
+import java.util.List;
+
+/**
+ * Iterative ray tracer - the shading model of {@link SimpleRayTracer} without the recursion.<br/>
+ * The secondary rays are pushed onto an explicit work stack - each entry holds the ray, its weight
+ * (the share of the ray in the pixel's color), the attenuation accumulated along its path, its level and
+ * its budget, kept in primitive arrays - and the color seen along each ray is accumulated straight into
+ * the color of the primary ray. So the depth of the Java stack does not depend on the level of recursion
+ * and on the sample counts, and no intermediate colors are created for the levels of the ray tree.<br/>
+ * The work stack of each thread is reused by all of its rays.
+ * The blackboards of the glossy and diffuse surfaces are always sampled fully (not adaptively),
+ * since their rays are traced after the blackboard is done.
+ */
+public class IterativeRayTracer extends SimpleRayTracer {
+    /** The work stacks of the threads */
+    private static final ThreadLocal<RayBatch> STACKS = ThreadLocal.withInitial(RayBatch::new);
+
+    /**
+     * Constructs an iterative ray tracer for the scene
+     *
+     * @param scene the scene to be rendered
+     */
+    public IterativeRayTracer(Scene scene) {
+        super(scene);
+    }
+
+    @Override
+    public Color traceRay(Ray ray) {
+        Intersection closest = findClosestIntersection(ray);
+        if (closest == null) return scene.background;
+        RayBatch stack = STACKS.get();
+        int bottom = stack.size; // the stack may be in use by an enclosing trace of the thread
+        Double3 ambient = scene.ambientLight.getIntensity().scale(closest.geometry.getMaterial().ka).rgb;
+        double[] color = { ambient.d1(), ambient.d2(), ambient.d3() };
+        ShadingContext context = preprocessIntersection(closest, ray.getDirection(), MAX_CALC_COLOR_LEVEL);
+        if (context != null)
+            shade(stack, color, context, ray, 1, 1, 1, INITIAL_K, MAX_CALC_COLOR_LEVEL, sampleBudget);
+        while (stack.size > bottom) {
+            int top = --stack.size;
+            Ray secondary = stack.rays[top];
+            stack.rays[top] = null;
+            // the entry is read out before the shading pushes new rays over it
+            int w = 3 * top;
+            double w1 = stack.weights[w], w2 = stack.weights[w + 1], w3 = stack.weights[w + 2];
+            int level = stack.levels[top];
+            double budget = stack.budgets[top];
+            Intersection intersection = findClosestIntersection(secondary);
+            if (intersection == null) {
+                accumulate(color, 0, scene.background.rgb, w1, w2, w3);
+                continue;
+            }
+            context = preprocessIntersection(intersection, secondary.getDirection(), level);
+            if (context != null)
+                shade(stack, color, context, secondary, w1, w2, w3,
+                        new Double3(stack.ks[w], stack.ks[w + 1], stack.ks[w + 2]), level, budget);
+        }
+        return new Color(color[0], color[1], color[2]);
+    }
+
+    /**
+     * Accumulates a weighted color into the color of a primary ray
+     * @param colors the colors of the primary rays - three components per ray
+     * @param origin the index of the primary ray
+     * @param add    the color components to add
+     * @param w1     the first component of the weight of the color
+     * @param w2     the second component of the weight of the color
+     * @param w3     the third component of the weight of the color
+     */
+    static void accumulate(double[] colors, int origin, Double3 add, double w1, double w2, double w3) {
+        colors[3 * origin] += add.d1() * w1;
+        colors[3 * origin + 1] += add.d2() * w2;
+        colors[3 * origin + 2] += add.d3() * w3;
+    }
+
+    /**
+     * Accumulates a weighted color into the color of a primary ray
+     * @param colors the colors of the primary rays - three components per ray
+     * @param origin the index of the primary ray
+     * @param add    the color components to add
+     * @param weight the weight of the color
+     */
+    static void accumulate(double[] colors, int origin, Double3 add, Double3 weight) {
+        accumulate(colors, origin, add, weight.d1(), weight.d2(), weight.d3());
+    }
+
+    /**
+     * Accumulates the weighted local effects of an intersection, and pushes its secondary rays onto the stack
+     * @param stack        the work stack
+     * @param color        the color of the primary ray
+     * @param intersection the shading context of the intersection
+     * @param ray          the ray hitting the intersection
+     * @param w1           the first component of the weight of the ray
+     * @param w2           the second component of the weight of the ray
+     * @param w3           the third component of the weight of the ray
+     * @param k            the attenuation accumulated along the path of the ray
+     * @param level        the level of the ray
+     * @param budget       the budget of the secondary rays of the glossy and diffuse surfaces along the path
+     */
+    private void shade(RayBatch stack, double[] color, ShadingContext intersection, Ray ray,
+                       double w1, double w2, double w3, Double3 k, int level, double budget) {
+        accumulate(color, 0, calcColorLocalEffects(intersection, k).rgb, w1, w2, w3);
+        if (level > 1) {
+            Material material = intersection.material;
+            Vector v = ray.getDirection();
+            Vector r = v.subtract(intersection.normal.scale(2 * v.dotProduct(intersection.normal)));
+            pushSecondary(stack, intersection, v, material.diffusion, material.diffusionSamples, material.kt,
+                    w1, w2, w3, k, level, budget, 0);
+            pushSecondary(stack, intersection, r, material.glossure, material.glossureSamples, material.kr,
+                    w1, w2, w3, k, level, budget, 0);
+        }
+    }
+
+    /**
+     * Pushes the secondary rays of a reflection or a refraction into a batch -
+     * a single ray, or the rays of the blackboard of a glossy or diffuse surface sharing the weight
+     * @param batch        the batch
+     * @param intersection the shading context of the intersection
+     * @param direction    direction of the (central) secondary ray
+     * @param distance     distance of the blackboard from the intersection point, infinity for a single ray
+     * @param numSamples   number of samples per side of the blackboard
+     * @param kx           the coefficient of the reflection or the refraction
+     * @param w1           the first component of the weight of the ray hitting the intersection
+     * @param w2           the second component of the weight of the ray hitting the intersection
+     * @param w3           the third component of the weight of the ray hitting the intersection
+     * @param k            the attenuation accumulated along the path of the ray hitting the intersection
+     * @param level        the level of the ray hitting the intersection
+     * @param budget       the budget of the secondary rays of the glossy and diffuse surfaces along the path
+     * @param origin       the index of the primary ray
+     */
+    protected void pushSecondary(RayBatch batch, ShadingContext intersection, Vector direction, double distance,
+                                 int numSamples, Double3 kx, double w1, double w2, double w3, Double3 k,
+                                 int level, double budget, int origin) {
+        Double3 kkx = k.product(kx);
+        if (kkx.lowerThan(MIN_CALC_COLOR_K)) return;
+        double survival = survival(kkx);
+        if (survival == 0) return;
+        if (survival < 1) {
+            kx = kx.reduce(survival);
+            kkx = kkx.reduce(survival);
+        }
+        if (distance == Double.POSITIVE_INFINITY) {
+            batch.push(new Ray(direction, intersection.normal, intersection.point),
+                    w1 * kx.d1(), w2 * kx.d2(), w3 * kx.d3(), kkx, level - 1, budget, origin);
+            return;
+        }
+        numSamples = budgetSamples(numSamples, kkx, budget);
+        List<Ray> rays = secondaryBlackBoard(intersection, direction, distance, numSamples).castRays();
+        double share = 1d / rays.size();
+        double rw1 = w1 * kx.d1() * share, rw2 = w2 * kx.d2() * share, rw3 = w3 * kx.d3() * share;
+        double rayBudget = rayBudget(budget, numSamples);
+        for (Ray secondary : rays) batch.push(secondary, rw1, rw2, rw3, kkx, level - 1, rayBudget, origin);
+    }
+}
@@ -0,0 +1,90 @@
+package renderer;
+
+import geometries.Intersectable.Intersection;
+import primitives.*;
+import scene.Scene;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Path tracer - follows a single stochastic path for each ray, instead of the fan-out of the secondary rays
+ * of {@link SimpleRayTracer}.<br/>
+ * At each vertex of the path the direct light is sampled explicitly (the local effects, with a single random
+ * shadow ray for each light of a radius), and the path continues by a single secondary ray - the refracted or
+ * the reflected one, chosen randomly by their coefficients, and for a diffuse or glossy material sent through a
+ * random point of the material's blackboard. The chosen ray is weighted by the inverse of its probability,
+ * so the average of many paths is the color of the simple ray tracer, at a cost linear in the depth of the path.
+ * The paths are averaged by the many rays of each pixel (anti-aliasing or variance-driven sampling).<br/>
+ * The shading model is the same as in {@link SimpleRayTracer}, but the settings of its fan-out do not apply:
+ * the Russian roulette and the sample budget (a camera refuses them with a path tracer), and the sampler
+ * and the adaptive sampling of the blackboards, which the path samples by single random rays
+ * (with a camera they still apply to the samples of the pixels).
+ */
+public class PathTracer extends SimpleRayTracer {
+    /**
+     * Constructs a path tracer for the scene
+     *
+     * @param scene the scene to be rendered
+     */
+    public PathTracer(Scene scene) {
+        super(scene);
+    }
+
+    @Override
+    public Color traceRay(Ray ray) {
+        Color color = Color.BLACK;
+        Double3 k = Double3.ONE; // the attenuation accumulated along the path
+        Double3 weight = Double3.ONE; // the attenuation divided by the probability of the path
+        for (int level = 0; level < MAX_CALC_COLOR_LEVEL; ++level) {
+            Intersection hit = findClosestIntersection(ray);
+            if (hit == null) return color.add(scene.background.scale(weight));
+            ShadingContext intersection = preprocessIntersection(hit, ray.getDirection(), level);
+            if (intersection == null) return color;
+
+            Material material = intersection.material;
+            if (level == 0) color = color.add(scene.ambientLight.getIntensity().scale(material.ka));
+            color = color.add(calcColorLocalEffects(intersection, k).scale(weight));
+
+            // one secondary ray - refracted or reflected, by the strength of their coefficients
+            double kt = max(material.kt), kr = max(material.kr);
+            if (kt + kr == 0) return color;
+            boolean refracted = ThreadLocalRandom.current().nextDouble() * (kt + kr) < kt;
+            Vector v = ray.getDirection();
+            Vector direction = refracted ? v : v.subtract(intersection.normal.scale(2 * v.dotProduct(intersection.normal)));
+            double distance = refracted ? material.diffusion : material.glossure;
+            Double3 kx = refracted ? material.kt : material.kr;
+            k = k.product(kx);
+            if (k.lowerThan(MIN_CALC_COLOR_K)) return color;
+            weight = weight.product(kx).scale((kt + kr) / (refracted ? kt : kr));
+            ray = distance == Double.POSITIVE_INFINITY
+                    ? new Ray(direction, intersection.normal, intersection.point)
+                    : new BlackBoard(intersection.point, distance, direction.getNormal(), direction)
+                    .setNormal(intersection.normal).castRandomRay();
+        }
+        return color;
+    }
+
+    /**
+     * Samples the light reaching the intersection by a single shadow ray -
+     * through a random point of the light if it has a radius
+     * @param intersection - shading context of the intersection to check level of light
+     * @return ktr - the transparency along the shadow ray
+     */
+    @Override
+    protected Double3 transparency(ShadingContext intersection) {
+        if (intersection.light.getRadius() == 0) return super.transparency(intersection);
+        Vector pointToLight = intersection.l.scale(-1);
+        double lightDistance = intersection.light.getDistance(intersection.point);
+        return calculateTransparency(lightBlackBoard(intersection, pointToLight, lightDistance).castRandomRay(),
+                lightDistance);
+    }
+
+    /**
+     * The largest component of a coefficient
+     * @param k the coefficient
+     * @return the largest component
+     */
+    private static double max(Double3 k) {
+        return Math.max(k.d1(), Math.max(k.d2(), k.d3()));
+    }
+}
@@ -1,11 +1,18 @@
 package renderer;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * PixelManager is a helper class. It is used for multi-threading in the
  * renderer and
  * for follow up its progress.<br/>
  * A Camera uses one pixel manager object and several Pixel objects - one in
- * each thread.
+ * each thread.<br/>
+ * In the lock-free mode the next pixel is allocated by an atomic counter, the
+ * processed pixels are counted by a striped counter, and the progress
+ * percentage is printed by a separate reporter thread, so the rendering
+ * threads never block on each other or on the console.
  * @author Dan Zilberstein
  */
 class PixelManager {
@@ -51,6 +58,17 @@ class PixelManager {
      */
     private Object              mutexPixels   = new Object();
 
+    /** Flag of the lock-free mode */
+    private boolean             lockFree      = false;
+    /** Index of the next pixel to be allocated (in lock-free mode) */
+    private final AtomicLong    nextIndex     = new AtomicLong();
+    /** Amount of pixels that have been processed (in lock-free mode) */
+    private final LongAdder     donePixels    = new LongAdder();
+    /** Thread printing the progress percentage (in lock-free mode) */
+    private Thread              reporter      = null;
+    /** Time between the reporter's progress checks in milliseconds */
+    private static final long   REPORT_PERIOD = 100l;
+
     /**
      * Initialize pixel manager data for multi-threading
      * @param maxRows  the amount of pixel rows
@@ -59,13 +77,31 @@ class PixelManager {
      *                 required
      */
     PixelManager(int maxRows, int maxCols, double... interval) {
+        this(maxRows, maxCols, false, interval);
+    }
+
+    /**
+     * Initialize pixel manager data for multi-threading
+     * @param maxRows  the amount of pixel rows
+     * @param maxCols  the amount of pixel columns
+     * @param lockFree true for the lock-free mode
+     * @param interval print time interval in seconds, 0 if printing is not
+     *                 required
+     */
+    PixelManager(int maxRows, int maxCols, boolean lockFree, double... interval) {
         if (interval.length > 1) throw new IllegalArgumentException("only up to one interval argument is allowed");
         this.maxRows  = maxRows;
         this.maxCols  = maxCols;
+        this.lockFree = lockFree;
         totalPixels   = (long) maxRows * maxCols;
         printInterval = interval.length == 0 ? printInterval : (long) (interval[0] * 10);
         print         = printInterval != 0;
         if (print) System.out.printf(PRINT_FORMAT, 0d);
+        if (print && lockFree) {
+            reporter = new Thread(this::report, "progress reporter");
+            reporter.setDaemon(true);
+            reporter.start();
+        }
     }
 
     /**
@@ -76,23 +112,31 @@ class PixelManager {
      * @return true if next pixel is allocated, false if there are no more pixels
      */
     Pixel nextPixel() {
+        if (lockFree) {
+            long index = nextIndex.getAndIncrement();
+            return index < totalPixels ? new Pixel((int) (index % maxCols), (int) (index / maxCols)) : null;
+        }
         synchronized (mutexNext) {
             if (cRow == maxRows) return null;
 
             ++cCol;
             if (cCol < maxCols)
-                return new Pixel(cRow, cCol);
+                return new Pixel(cCol, cRow);
 
             cCol = 0;
             ++cRow;
             if (cRow < maxRows)
-                return new Pixel(cRow, cCol);
+                return new Pixel(cCol, cRow);
         }
         return null;
     }
 
     /** Finish pixel processing by updating and printing of progress percentage */
     void pixelDone() {
+        if (lockFree) {
+            donePixels.increment();
+            return;
+        }
         boolean flag       = false;
         int     percentage = 0;
         synchronized (mutexPixels) {
@@ -107,4 +151,41 @@ class PixelManager {
             if (flag) System.out.printf(PRINT_FORMAT, percentage / 10d);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Finish the rendering - stop the reporter thread (in lock-free mode)
+     * after it prints the final progress percentage
+     */
+    void finish() {
+        if (reporter == null) return;
+        reporter.interrupt();
+        try {
+            reporter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The reporter thread's loop - check the progress periodically and print its percentage
+     * when it has advanced by the printing interval, until all the pixels are processed
+     * or the rendering is finished
+     */
+    private void report() {
+        boolean finished = false;
+        while (true) {
+            long pixels     = donePixels.sum();
+            int  percentage = (int) (1000l * pixels / totalPixels);
+            if (percentage - lastPrinted >= printInterval) {
+                lastPrinted = percentage;
+                System.out.printf(PRINT_FORMAT, percentage / 10d);
+            }
+            if (finished || pixels == totalPixels) return;
+            try {
+                Thread.sleep(REPORT_PERIOD);
+            } catch (InterruptedException e) {
+                finished = true; // one more round for the final percentage
+            }
+        }
+    }
+}
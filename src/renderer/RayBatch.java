@@ -0,0 +1,85 @@
+package renderer;
+
+import primitives.Double3;
+import primitives.Ray;
+
+import java.util.Arrays;
+
+/**
+ * A batch of rays waiting to be traced, with their parameters kept in primitive arrays - used as the work stack
+ * of the {@link IterativeRayTracer iterative ray tracer} and as the wavefront of the
+ * {@link WavefrontRayTracer wavefront ray tracer}.<br/>
+ * Each entry holds the ray, its weight (the share of the ray in the color of its primary ray), the attenuation
+ * accumulated along its path, its level, its budget of secondary rays, and the index of its primary ray.
+ * The tracers read the components of the weights and the attenuations straight from the arrays,
+ * so nothing is created when a ray is pushed or popped.
+ */
+final class RayBatch {
+    /** Initial capacity of a batch */
+    private static final int INITIAL_CAPACITY = 64;
+    /** The rays */
+    Ray[] rays;
+    /** The weights of the rays - three color components per ray */
+    double[] weights;
+    /** The attenuations accumulated along the paths of the rays - three components per ray */
+    double[] ks;
+    /** The levels of the rays */
+    int[] levels;
+    /** The budgets of the secondary rays of the glossy and diffuse surfaces along the paths of the rays */
+    double[] budgets;
+    /** The indices of the primary rays of the rays */
+    int[] origins;
+    /** Amount of rays in the batch */
+    int size = 0;
+
+    /** Creates an empty batch */
+    RayBatch() { this(INITIAL_CAPACITY); }
+
+    /**
+     * Creates an empty batch
+     * @param capacity the initial capacity of the batch
+     */
+    RayBatch(int capacity) {
+        capacity = Math.max(capacity, 1);
+        rays = new Ray[capacity];
+        weights = new double[3 * capacity];
+        ks = new double[3 * capacity];
+        levels = new int[capacity];
+        budgets = new double[capacity];
+        origins = new int[capacity];
+    }
+
+    /**
+     * Adds a ray to the batch
+     * @param ray    the ray
+     * @param w1     the first component of the weight of the ray
+     * @param w2     the second component of the weight of the ray
+     * @param w3     the third component of the weight of the ray
+     * @param k      the attenuation accumulated along the path of the ray
+     * @param level  the level of the ray
+     * @param budget the budget of the ray
+     * @param origin the index of the primary ray of the ray
+     */
+    void push(Ray ray, double w1, double w2, double w3, Double3 k, int level, double budget, int origin) {
+        if (size == rays.length) {
+            int capacity = 2 * size;
+            rays = Arrays.copyOf(rays, capacity);
+            weights = Arrays.copyOf(weights, 3 * capacity);
+            ks = Arrays.copyOf(ks, 3 * capacity);
+            levels = Arrays.copyOf(levels, capacity);
+            budgets = Arrays.copyOf(budgets, capacity);
+            origins = Arrays.copyOf(origins, capacity);
+        }
+        rays[size] = ray;
+        weights[3 * size] = w1;
+        weights[3 * size + 1] = w2;
+        weights[3 * size + 2] = w3;
+        ks[3 * size] = k.d1();
+        ks[3 * size + 1] = k.d2();
+        ks[3 * size + 2] = k.d3();
+        levels[size] = level;
+        budgets[size] = budget;
+        origins[size] = origin;
+        ++size;
+    }
+}
@@ -7,5 +7,11 @@ public enum RayTracerType {
    /** Simple (basic) ray tracer */
    SIMPLE,
    /** Ray tracer using regular grid */
-   GRID;
+   GRID,
+   /** Path tracer - a single stochastic path for each ray */
+   PATH,
+   /** Iterative ray tracer - the simple ray tracer over an explicit work stack */
+   ITERATIVE,
+   /** Wavefront ray tracer - the simple ray tracer breadth-first for the rays of a tile */
+   WAVEFRONT;
 }
@@ -0,0 +1,220 @@
+package renderer;
+
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Precomputed table of sample offsets for the blackboards.
+ * A table of n samples per side holds n x n samples over the unit square (coordinates in [-1/2, 1/2]),
+ * generated by a {@link SamplerType sampler} - one jittered sample in each cell of an n x n grid,
+ * or the first n x n points of a low-discrepancy or blue-noise sequence - and the same samples mapped
+ * onto the disk of diameter 1 by the area-preserving concentric mapping (for circular blackboards),
+ * so a circular blackboard casts exactly n x n rays as well.<br/>
+ * The tables are built once per sampler and size - in several variants with different jitter or scrambling,
+ * so neighbouring blackboards don't repeat the same pattern - and are shared read-only by all the threads.
+ * A variant is chosen either randomly or by a scrambling key (such as a pixel index).
+ */
+final class SampleTable {
+    /** Amount of variants (differently jittered or scrambled tables) for each sampler and size */
+    static final int VARIANTS = 16;
+    /** Amount of candidates per point of the best-candidate (blue noise) algorithm */
+    private static final int CANDIDATES = 10;
+    /** The variants of the tables, built on demand, by the sampler and the amount of samples per side */
+    private static final ConcurrentHashMap<Long, SampleTable[]> TABLES = new ConcurrentHashMap<>();
+
+    /** X offsets of the samples in the unit square */
+    final double[] squareX;
+    /** Y offsets of the samples in the unit square */
+    final double[] squareY;
+    /** X offsets of the samples mapped onto the unit disk */
+    final double[] diskX;
+    /** Y offsets of the samples mapped onto the unit disk */
+    final double[] diskY;
+    /**
+     * A random permutation of the samples' indices - for pairing the samples of this table with the samples
+     * of another pattern (such as lens samples with pixel samples) without correlating their positions
+     */
+    final int[]    shuffle;
+
+    /**
+     * Builds a table of samples
+     * @param sampler    the sampler generating the samples
+     * @param numSamples the amount of samples per side of the grid
+     * @param random     the random generator for the jitter or the scrambling
+     */
+    private SampleTable(SamplerType sampler, int numSamples, Random random) {
+        int count = numSamples * numSamples;
+        squareX = new double[count];
+        squareY = new double[count];
+        switch (sampler) {
+            case JITTERED -> jittered(numSamples, random);
+            case HALTON -> halton(random);
+            case SOBOL -> sobol(random);
+            case BLUE_NOISE -> blueNoise(random);
+        }
+        diskX = new double[count];
+        diskY = new double[count];
+        for (int k = 0; k < count; ++k) concentric(k);
+        shuffle = new int[count];
+        for (int k = 0; k < count; ++k) {
+            int other = random.nextInt(k + 1); // Fisher-Yates shuffle
+            shuffle[k] = shuffle[other];
+            shuffle[other] = k;
+        }
+    }
+
+    /**
+     * Maps a sample of the square onto the disk by the concentric mapping (Shirley-Chiu):
+     * the square's concentric squares are mapped to the disk's concentric circles, so the mapping
+     * preserves area (and the stratification of the samples), and no sample is rejected
+     * @param k index of the sample
+     */
+    private void concentric(int k) {
+        double a = 2 * squareX[k], b = 2 * squareY[k]; // in [-1, 1]
+        double radius, angle;
+        if (a == 0 && b == 0) {
+            radius = 0;
+            angle = 0;
+        } else if (Math.abs(a) > Math.abs(b)) {
+            radius = a;
+            angle = Math.PI / 4 * (b / a);
+        } else {
+            radius = b;
+            angle = Math.PI / 2 - Math.PI / 4 * (a / b);
+        }
+        diskX[k] = radius / 2 * Math.cos(angle);
+        diskY[k] = radius / 2 * Math.sin(angle);
+    }
+
+    /**
+     * Generates the jittered grid - in each cell a sample is moved from the cell center
+     * by a gaussian jitter (standard deviation of a quarter of the cell) truncated to the cell
+     * @param numSamples the amount of samples per side of the grid
+     * @param random     the random generator for the jitter
+     */
+    private void jittered(int numSamples, Random random) {
+        double cellSize = 1d / numSamples;
+        for (int i = 0; i < numSamples; ++i)
+            for (int j = 0; j < numSamples; ++j) {
+                int k = i * numSamples + j;
+                squareX[k] = (j - (numSamples - 1) / 2d) * cellSize + jitter(random, cellSize);
+                squareY[k] = -(i - (numSamples - 1) / 2d) * cellSize + jitter(random, cellSize);
+            }
+    }
+
+    /**
+     * Generates the Halton points of bases 2 and 3, shifted toroidally by a random offset
+     * (Cranley-Patterson rotation)
+     * @param random the random generator for the shift
+     */
+    private void halton(Random random) {
+        double shiftX = random.nextDouble(), shiftY = random.nextDouble();
+        for (int k = 0; k < squareX.length; ++k) {
+            squareX[k] = (radicalInverse(k + 1, 2) + shiftX) % 1 - 0.5;
+            squareY[k] = (radicalInverse(k + 1, 3) + shiftY) % 1 - 0.5;
+        }
+    }
+
+    /**
+     * Calculates the radical inverse of an index - its digits in the base mirrored around the radix point
+     * @param index the index
+     * @param base  the base
+     * @return the radical inverse, in [0, 1)
+     */
+    private static double radicalInverse(int index, int base) {
+        double inverse = 0, digitValue = 1d / base;
+        for (; index > 0; index /= base, digitValue /= base)
+            inverse += index % base * digitValue;
+        return inverse;
+    }
+
+    /**
+     * Generates the points of the two-dimensional Sobol sequence, scrambled by a random XOR of the bits
+     * @param random the random generator for the scrambling
+     */
+    private void sobol(Random random) {
+        int scrambleX = random.nextInt(), scrambleY = random.nextInt();
+        for (int k = 0; k < squareX.length; ++k) {
+            // first dimension - van der Corput (bit reversal), second - direction numbers v(i) = v(i-1) ^ v(i-1) >> 1
+            int x = Integer.reverse(k), y = 0, v = 1 << 31;
+            for (int index = k; index != 0; index >>>= 1, v ^= v >>> 1)
+                if ((index & 1) != 0) y ^= v;
+            squareX[k] = Integer.toUnsignedLong(x ^ scrambleX) / 4294967296d - 0.5;
+            squareY[k] = Integer.toUnsignedLong(y ^ scrambleY) / 4294967296d - 0.5;
+        }
+    }
+
+    /**
+     * Generates blue noise by Mitchell's best-candidate algorithm - each point is the candidate
+     * farthest from the points chosen so far (with toroidal distances, so the tiles match at their borders)
+     * @param random the random generator for the candidates
+     */
+    private void blueNoise(Random random) {
+        for (int k = 0; k < squareX.length; ++k) {
+            double bestX = 0, bestY = 0, bestDistance = -1;
+            for (int c = 0; c < CANDIDATES; ++c) {
+                double x = random.nextDouble() - 0.5, y = random.nextDouble() - 0.5;
+                double distance = Double.POSITIVE_INFINITY;
+                for (int p = 0; p < k && distance > bestDistance; ++p) {
+                    double dx = Math.abs(x - squareX[p]), dy = Math.abs(y - squareY[p]);
+                    dx = Math.min(dx, 1 - dx);
+                    dy = Math.min(dy, 1 - dy);
+                    distance = Math.min(distance, dx * dx + dy * dy);
+                }
+                if (distance > bestDistance) {
+                    bestDistance = distance;
+                    bestX = x;
+                    bestY = y;
+                }
+            }
+            squareX[k] = bestX;
+            squareY[k] = bestY;
+        }
+    }
+
+    /**
+     * Draws a gaussian jitter truncated to half of the cell
+     * @param random   the random generator
+     * @param cellSize the size of the cell
+     * @return the jitter
+     */
+    private static double jitter(Random random, double cellSize) {
+        double jitter;
+        do jitter = random.nextGaussian() * cellSize / 4; while (Math.abs(jitter) > cellSize / 2);
+        return jitter;
+    }
+
+    /**
+     * Returns a variant of the table of the given sampler and size (building the variants on the first request)
+     * @param sampler    the sampler generating the samples
+     * @param numSamples the amount of samples per side of the grid
+     * @param variant    the variant, 0 to {@value #VARIANTS}-1
+     * @return the table
+     */
+    static SampleTable of(SamplerType sampler, int numSamples, int variant) {
+        return TABLES.computeIfAbsent((long) sampler.ordinal() << 32 | numSamples, key -> {
+            Random random = new Random(key); // the same tables in every run
+            SampleTable[] variants = new SampleTable[VARIANTS];
+            for (int v = 0; v < VARIANTS; ++v) variants[v] = new SampleTable(sampler, numSamples, random);
+            return variants;
+        })[variant];
+    }
+
+    /**
+     * Chooses a random variant
+     * @return the variant
+     */
+    static int randomVariant() { return ThreadLocalRandom.current().nextInt(VARIANTS); }
+
+    /**
+     * Chooses the variant of a scrambling key, so each key (such as a pixel index) always gets the same variant
+     * while consecutive keys get different variants
+     * @param key the scrambling key
+     * @return the variant
+     */
+    static int variant(long key) {
+        key *= 0x9E3779B97F4A7C15L; // Fibonacci hashing - spread consecutive keys
+        return (int) (key >>> 60) % VARIANTS;
+    }
+}
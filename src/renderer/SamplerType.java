@@ -0,0 +1,15 @@
+package renderer;
+
+/**
+ * Types of the sample patterns of the blackboards
+ */
+public enum SamplerType {
+   /** Grid with a gaussian jitter in each cell */
+   JITTERED,
+   /** Halton sequence (bases 2 and 3) with a random toroidal shift */
+   HALTON,
+   /** Sobol sequence with a random digital (XOR) scrambling */
+   SOBOL,
+   /** Blue noise - Mitchell's best-candidate points */
+   BLUE_NOISE;
+}
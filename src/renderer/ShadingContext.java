@@ -0,0 +1,38 @@
+package renderer;
+
+import geometries.Intersectable.Intersection;
+import lighting.LightSource;
+import primitives.Material;
+import primitives.Point;
+import primitives.Vector;
+
+/**
+ * The shading state of an intersection being shaded - its point, material and normal, the view direction,
+ * and the light source currently being summed, with their scalar products.<br/>
+ * The intersections found by the geometries are compact hit records, and only the closest one of a ray
+ * gets shaded, so the shading state is kept apart: each thread holds a context for each level of recursion
+ * of the ray tracers, which is reused by all the intersections shaded at that level.
+ */
+final class ShadingContext {
+    /** The intersection being shaded */
+    Intersection intersection;
+    /** The intersection point */
+    Point point;
+    /** The material at the intersection point */
+    Material material;
+    /** The normal vector at the intersection point */
+    Vector normal;
+    /** The view vector at the intersection point */
+    Vector v;
+    /** Scalar product of the view vector and the normal vector */
+    double vNormal;
+    /** The light source being summed */
+    LightSource light;
+    /** The vector from the light source to the intersection point */
+    Vector l;
+    /** Scalar product of the light vector and the normal vector */
+    double lNormal;
+
+    /** Creates an empty context */
+    ShadingContext() {}
+}
@@ -6,6 +6,7 @@ import scene.Scene;
 import geometries.Intersectable. Intersection;
 
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Simple ray tracer implementation that extends the RayTracerBase class.
@@ -18,17 +19,49 @@ public class SimpleRayTracer extends RayTracerBase{
      * Maximum level of color calculation for recursive effects.
      * This value limits the depth of recursion when calculating color effects such as reflections and refractions.
      */
-    private static final int MAX_CALC_COLOR_LEVEL = 10;
+    protected static final int MAX_CALC_COLOR_LEVEL = 10;
     /**
      * Minimum value for color calculation to avoid division by zero.
      * This value is used to ensure that the color calculations do not result in zero or negative values.
      */
-    private static final double MIN_CALC_COLOR_K = 0.001;
+    protected static final double MIN_CALC_COLOR_K = 0.001;
     /**
      * Initial value for the color calculation factor.
      * This value is used as a starting point for color calculations in the ray tracing algorithm.
      */
-    private static final Double3 INITIAL_K = Double3.ONE;
+    protected static final Double3 INITIAL_K = Double3.ONE;
+    /**
+     * The shading contexts of the threads - one for each level of recursion
+     */
+    private static final ThreadLocal<ShadingContext[]> CONTEXTS = ThreadLocal.withInitial(() -> {
+        ShadingContext[] contexts = new ShadingContext[MAX_CALC_COLOR_LEVEL + 1];
+        for (int i = 0; i < contexts.length; ++i) contexts[i] = new ShadingContext();
+        return contexts;
+    });
+    /**
+     * Whether soft shadows, glossy reflections and diffuse refractions are sampled adaptively -
+     * the full blackboard of samples is cast only where a preliminary small blackboard disagrees.
+     */
+    private boolean adaptiveSampling = false;
+    /**
+     * The sampler generating the sample patterns of the blackboards (soft shadows, glossy and diffuse surfaces)
+     */
+    private SamplerType sampler = SamplerType.JITTERED;
+    /**
+     * Threshold of the Russian roulette termination of the secondary rays - a secondary ray whose accumulated
+     * attenuation (its largest component) is below the threshold survives with a probability proportional
+     * to the attenuation, and its color is divided by that probability (so the expected color is unbiased).
+     * If it is zero - there is no Russian roulette.
+     */
+    private double rouletteThreshold = 0;
+    /**
+     * Budget of the secondary rays spawned by the glossy and diffuse surfaces along a path of a primary ray -
+     * each blackboard of a glossy or diffuse surface takes a share of its path's budget (by the accumulated
+     * attenuation of the path), and its rays divide the rest of the budget among themselves,
+     * so the amount of rays per level of recursion never exceeds the budget.
+     * If it is infinite - each blackboard casts all the samples of its material.
+     */
+    protected double sampleBudget = Double.POSITIVE_INFINITY;
 
     /**
      * Constructs a SimpleRayTracer object with the specified scene.
@@ -40,6 +73,62 @@ public class SimpleRayTracer extends RayTracerBase{
         super(scene);
     }
 
+    /**
+     * Sets the adaptive sampling mode of the blackboards (soft shadows, glossy and diffuse surfaces).
+     *
+     * @param adaptiveSampling true for casting all the samples only where a preliminary set of samples disagrees
+     * @return the ray tracer itself
+     */
+    public SimpleRayTracer setAdaptiveSampling(boolean adaptiveSampling) {
+        this.adaptiveSampling = adaptiveSampling;
+        return this;
+    }
+
+    /**
+     * Sets the sampler of the blackboards (soft shadows, glossy and diffuse surfaces).
+     *
+     * @param sampler the sampler generating the sample patterns
+     * @return the ray tracer itself
+     */
+    public SimpleRayTracer setSampler(SamplerType sampler) {
+        this.sampler = sampler;
+        return this;
+    }
+
+    /**
+     * Sets the Russian roulette termination of the secondary (reflected and refracted) rays.
+     * A secondary ray whose accumulated attenuation is below the threshold is terminated randomly -
+     * it survives with a probability of its attenuation divided by the threshold, and a surviving ray's
+     * color is scaled up accordingly, so the weak far branches of the ray tree are mostly cut off
+     * without biasing the average color (at the cost of some noise).
+     *
+     * @param threshold the attenuation (0-1) below which the rays are terminated randomly, 0 for no Russian roulette
+     * @return the ray tracer itself
+     * @throws IllegalArgumentException if the threshold is not in the range 0-1
+     */
+    public SimpleRayTracer setRussianRoulette(double threshold) {
+        if (threshold < 0 || threshold > 1) throw new IllegalArgumentException("Threshold must be in the range 0-1");
+        this.rouletteThreshold = threshold;
+        return this;
+    }
+
+    /**
+     * Sets the budget of the secondary rays of the glossy and diffuse surfaces along the path of each primary ray.
+     * A blackboard of a path with budget B and accumulated attenuation k casts about sqrt(B * k) rays
+     * (at most all the samples of its material), and each of its rays gets an equal share of the rest of the budget -
+     * for example with a budget of 4096 the first perfectly glossy surface casts 64 rays (sharing 4032),
+     * the next ones 4 rays each (sharing 59), and the deeper ones a single ray. The amount of rays per level of recursion never exceeds the budget.
+     *
+     * @param budget the budget of the secondary rays per primary ray, 0 for an unlimited budget
+     * @return the ray tracer itself
+     * @throws IllegalArgumentException if the budget is negative
+     */
+    public SimpleRayTracer setSampleBudget(int budget) {
+        if (budget < 0) throw new IllegalArgumentException("Budget must not be negative");
+        this.sampleBudget = budget == 0 ? Double.POSITIVE_INFINITY : budget;
+        return this;
+    }
+
     /**
      * Traces a ray through the scene and returns the color at the intersection point.
      * If there are no intersections, it returns the background color of the scene.
@@ -49,11 +138,8 @@ public class SimpleRayTracer extends RayTracerBase{
      */
     @Override
     public Color traceRay(Ray ray) {
-        List<Intersection> intersections = scene.geometries.calculateIntersectionsHelper(ray, Double.POSITIVE_INFINITY);
-        if (intersections == null)
-            return scene.background;
-
-        return calcColor(findClosestIntersection(ray), ray);
+        Intersection closest = findClosestIntersection(ray);
+        return closest == null ? scene.background : calcColor(closest, ray);
     }
 
     /**
@@ -64,8 +150,8 @@ public class SimpleRayTracer extends RayTracerBase{
      * @return the color at the specified point
      */
     private Color calcColor(Intersection intersection, Ray ray) {
-        return calcColor(intersection, ray, MAX_CALC_COLOR_LEVEL, INITIAL_K).
-                add(scene.ambientLight.getIntensity().scale(intersection.material.ka));
+        return calcColor(intersection, ray, MAX_CALC_COLOR_LEVEL, INITIAL_K, sampleBudget).
+                add(scene.ambientLight.getIntensity().scale(intersection.geometry.getMaterial().ka));
     }
 
     /**
@@ -74,45 +160,53 @@ public class SimpleRayTracer extends RayTracerBase{
      * @param ray - hitting ray
      * @param level - level of recursive call
      * @param k - current mekadem hanhata of global effect
+     * @param budget - budget of the secondary rays of the glossy and diffuse surfaces along the path
      * @return color of intersection point
      */
-    private Color calcColor(Intersection intersection, Ray ray, int level, Double3 k){
-        if (!preprocessIntersection(intersection, ray.getDirection()))
+    private Color calcColor(Intersection intersection, Ray ray, int level, Double3 k, double budget){
+        ShadingContext context = preprocessIntersection(intersection, ray.getDirection(), level);
+        if (context == null)
             return Color.BLACK;
-        Color color = calcColorLocalEffects(intersection, k);
-        return 1 == level ? color : color.add(calcGlobalEffects(intersection, ray, level, k));
+        Color color = calcColorLocalEffects(context, k);
+        return 1 == level ? color : color.add(calcGlobalEffects(context, ray, level, k, budget));
     }
 
     /**
-     * Preprocesses the intersection by calculating the normal vector and the view vector.
+     * Preprocesses the intersection by calculating the point, the normal vector and the view vector
+     * into the thread's shading context of the level.
      * This method also checks if the intersection is valid (not zero).
      *
      * @param intersection the intersection to preprocess
      * @param v the view vector
-     * @return true if the intersection is valid, false otherwise
+     * @param level the level of recursion of the intersection
+     * @return the shading context of the intersection if it is valid, null otherwise
      */
-    private boolean preprocessIntersection(Intersection intersection, Vector v) {
-        intersection.v = v;
-        intersection.normal = intersection.geometry.getNormal(intersection.point);
-        intersection.vNormal = Util.alignZero(intersection.v.dotProduct(intersection.normal));
-
-        return intersection.vNormal != 0;
+    protected ShadingContext preprocessIntersection(Intersection intersection, Vector v, int level) {
+        ShadingContext context = CONTEXTS.get()[level];
+        context.intersection = intersection;
+        context.point = intersection.getPoint();
+        context.material = intersection.geometry.getMaterial();
+        context.v = v;
+        context.normal = intersection.geometry.getNormal(context.point);
+        context.vNormal = Util.alignZero(context.v.dotProduct(context.normal));
+
+        return context.vNormal != 0 ? context : null;
     }
 
     /**
      * Sets the light source for the intersection and calculates the light vector.
      * This method also checks if the light source is valid (not zero).
      *
-     * @param intersection the intersection to set the light source for
+     * @param context the shading context of the intersection to set the light source for
      * @param light the light source to set
      * @return true if the light source is valid, false otherwise
      */
-    private boolean setLightSource(Intersection intersection, LightSource light) {
-        intersection.light = light;
-        intersection.l = light.getL(intersection.point);
-        intersection.lNormal = Util.alignZero(intersection.l.dotProduct(intersection.normal));
+    protected boolean setLightSource(ShadingContext context, LightSource light) {
+        context.light = light;
+        context.l = light.getL(context.point);
+        context.lNormal = Util.alignZero(context.l.dotProduct(context.normal));
 
-        return intersection.vNormal * intersection.vNormal <= 0;
+        return context.vNormal * context.vNormal <= 0;
     }
 
     /**
@@ -120,12 +214,13 @@ public class SimpleRayTracer extends RayTracerBase{
      * This method considers the emission color of the geometry and the intensity
      * of the light sources in the scene.
      *
-     * @param gp the intersection point
+     * @param gp the shading context of the intersection point
+     * @param k the attenuation accumulated along the path to the intersection
      * @return the calculated color at the intersection point
      */
-    private Color calcColorLocalEffects(Intersection gp, Double3 k)
+    protected Color calcColorLocalEffects(ShadingContext gp, Double3 k)
     {
-        Color color = gp.geometry.getEmission(); // emission color of geometry
+        Color color = gp.intersection.geometry.getEmission(); // emission color of geometry
 
         for (LightSource lightSource : scene.lights) {
             if (!setLightSource(gp, lightSource) && gp.lNormal * gp.vNormal > 0) { // sign(nl) == sign(nv)
@@ -143,10 +238,10 @@ public class SimpleRayTracer extends RayTracerBase{
 
     /**
      * The function calculates specular effects at the intersection point.
-     * @param intersection - the intersection point
+     * @param intersection - the shading context of the intersection point
      * @return the specular color at the intersection point
      */
-    private Double3 calcSpecular(Intersection intersection){
+    protected Double3 calcSpecular(ShadingContext intersection){
         // r = l - (n * lNormal * 2)
         Vector r = intersection.l.subtract(intersection.normal.scale(2 * intersection.lNormal));
         double rv = Util.alignZero(r.dotProduct(intersection.v));
@@ -160,10 +255,10 @@ public class SimpleRayTracer extends RayTracerBase{
 
     /**
      * The function calculates diffusive effects at the intersection point.
-     * @param intersection - the intersection point
+     * @param intersection - the shading context of the intersection point
      * @return the diffusive color at the intersection point
      */
-    private Double3 calcDiffusive(Intersection intersection){
+    protected Double3 calcDiffusive(ShadingContext intersection){
         return intersection.material.kd.scale(Math.abs(intersection.lNormal));
     }
 
@@ -171,37 +266,31 @@ public class SimpleRayTracer extends RayTracerBase{
     /**
      * The function calculates how much of the light from the light source reaches the intersection.
      * Each body shading over the intersection reduces the amount of light at intersection.
-     * @param intersection - intersection to check level of light
+     * @param intersection - shading context of the intersection to check level of light
      * @return ktr - final mekadem hanhata of transparency
      */
-    private Double3 transparency(Intersection intersection) {
+    protected Double3 transparency(ShadingContext intersection) {
         Vector pointToLight = intersection.l.scale(-1);
         double lightDistance = intersection.light.getDistance(intersection.point);
-        List<Ray> shadowRays;
         if (intersection.light.getRadius() == 0)
-            shadowRays = List.of(new Ray(pointToLight, intersection.normal, intersection.point));
-        else {
-            //Point offsetPoint = intersection.point.add(intersection.normal.scale(0.1));
-            BlackBoard blackBoard = new BlackBoard(intersection.point, lightDistance, pointToLight.getNormal(), pointToLight);
-            blackBoard.setSize(intersection.light.getRadius()*2).setNormal(intersection.normal).setCircular(true);
-            shadowRays = blackBoard.castRays();
-        }
+            return calculateTransparency(new Ray(pointToLight, intersection.normal, intersection.point), lightDistance);
 
-        Double3 ktr;
-        Double3 averageKtr = Double3.ZERO;
-        List<Intersection> intersections;
-        for (Ray shadowRay : shadowRays) {
-            intersections = scene.geometries.calculateIntersectionsHelper(shadowRay, lightDistance);
-            ktr = Double3.ONE;
-            if (intersections != null) {
-                for (Intersection i : intersections) {
-                    ktr = ktr.product(i.material.kt);
-                }
-            }
-            averageKtr = averageKtr.add(ktr);
+        //Point offsetPoint = intersection.point.add(intersection.normal.scale(0.1));
+        return lightBlackBoard(intersection, pointToLight, lightDistance)
+                .average(shadowRay -> calculateTransparency(shadowRay, lightDistance), BlackBoard.KTR_TOLERANCE);
+    }
 
-        }
-        return averageKtr.reduce(shadowRays.size());
+    /**
+     * Creates the blackboard of the shadow rays of a light source of a radius (for soft shadows)
+     * @param intersection - the shading context of the intersection, with the light source set
+     * @param pointToLight - the direction from the intersection point to the light source
+     * @param lightDistance - the distance from the intersection point to the light source
+     * @return the blackboard covering the light source
+     */
+    protected BlackBoard lightBlackBoard(ShadingContext intersection, Vector pointToLight, double lightDistance) {
+        return new BlackBoard(intersection.point, lightDistance, pointToLight.getNormal(), pointToLight)
+                .setSize(intersection.light.getRadius() * 2).setNormal(intersection.normal).setCircular(true)
+                .setNumSamples(intersection.light.getNumSamples()).setAdaptive(adaptiveSampling).setSampler(sampler);
     }
 
 //    private boolean unshaded(Intersection intersection){
@@ -217,109 +306,151 @@ public class SimpleRayTracer extends RayTracerBase{
 //    }
 
     /**
-     * Calculate refraction ray, and to it the right delta
-     * @param ray - hitting ray
-     * @param intersection - intersection point on geometry
-     * @return refraction ray
+     * Calculate global effect for either reflection or transperancy.
+     * The secondary ray leaves the intersection point in the given direction, or - for a diffuse
+     * or glossy material - the secondary rays are spread over a blackboard at the given distance,
+     * and their colors are averaged.
+     * @param intersection - shading context of the intersection point on geometry
+     * @param direction - direction of the (central) secondary ray
+     * @param distance - distance of the blackboard from the intersection point, infinity for a single ray
+     * @param numSamples - number of samples per side of the blackboard
+     * @param level - depth of recursive calls
+     * @param initialK - initial mekadem hanhata of reflection or transperancy
+     * @param kx - mekadem hanhata of currnent material
+     * @param budget - budget of the secondary rays of the glossy and diffuse surfaces along the path
+     * @return color of intersection point from global effect
      */
-    private List<Ray> refractionRay(Ray ray, Intersection intersection) {
-        if (intersection.material.diffusion == Double.POSITIVE_INFINITY) {
-            return List.of(new Ray(ray.getDirection(), intersection.normal, intersection.point));
+    private Color calcGlobalEffect(ShadingContext intersection, Vector direction, double distance, int numSamples,
+                                   int level, Double3 initialK, Double3 kx, double budget) {
+        Double3 kkx = initialK.product(kx);
+        if (kkx.lowerThan(MIN_CALC_COLOR_K)) {
+            return Color.BLACK;
+        }
+        double survival = survival(kkx);
+        if (survival == 0) return Color.BLACK;
+        if (survival < 1) {
+            // Russian roulette - the survivors carry the weight of the terminated rays
+            kx = kx.reduce(survival);
+            kkx = kkx.reduce(survival);
+        }
+        if (distance == Double.POSITIVE_INFINITY) {
+            return calcSecondaryColor(new Ray(direction, intersection.normal, intersection.point), level, kkx, budget)
+                    .scale(kx);
         }
-        // if there is diffusion, we need to calculate the refraction rays
-        BlackBoard blackBoard = new BlackBoard(intersection.point, intersection.material.diffusion,
-                ray.getDirection().getNormal(), ray.getDirection()).setNormal(intersection.normal);
-        return blackBoard.castRays();
+        numSamples = budgetSamples(numSamples, kkx, budget);
+        double rayBudget = rayBudget(budget, numSamples);
+        // if there is diffusion or glossure, we need to average the secondary rays through the blackboard
+        BlackBoard blackBoard = secondaryBlackBoard(intersection, direction, distance, numSamples);
+        Double3 pathK = kkx;
+        Double3 average = blackBoard.average(ray -> calcSecondaryColor(ray, level, pathK, rayBudget).rgb,
+                BlackBoard.COLOR_TOLERANCE);
+        return new Color(average.d1(), average.d2(), average.d3()).scale(kx);
     }
+
     /**
-     * Calculate reflection ray, and to it the right delta
-     * @param ray - hitting ray
-     * @param intersection - intersection point on geometry
-     * @return reflection ray
+     * Draws the Russian roulette of a secondary ray
+     * @param kkx - mekadem hanhata accumulated along the path, including the secondary ray
+     * @return the probability of the ray to survive (1 if it is not subject to the roulette), or 0 if it is terminated
      */
-    private List<Ray> reflectionRay(Ray ray, Intersection intersection) {
-        Vector v = ray.getDirection();
-        Vector r = v.subtract(intersection.normal.scale(2*v.dotProduct(intersection.normal)));
+    protected double survival(Double3 kkx) {
+        if (!kkx.lowerThan(rouletteThreshold)) return 1;
+        double survival = Math.max(kkx.d1(), Math.max(kkx.d2(), kkx.d3())) / rouletteThreshold;
+        return ThreadLocalRandom.current().nextDouble() < survival ? survival : 0;
+    }
 
-        if (intersection.material.glossure == Double.POSITIVE_INFINITY) {
-            return List.of(new Ray(r, intersection.normal, intersection.point));
-        }
+    /**
+     * Calculates the samples per side of a blackboard of a glossy or diffuse surface by the path's budget -
+     * the blackboard takes a share of the budget by the path's attenuation, and its rays share the rest
+     * @param numSamples - number of samples per side of the material's blackboard
+     * @param kkx - mekadem hanhata accumulated along the path, including the secondary rays
+     * @param budget - budget of the secondary rays of the glossy and diffuse surfaces along the path
+     * @return the number of samples per side of the blackboard
+     */
+    protected int budgetSamples(int numSamples, Double3 kkx, double budget) {
+        double weight = Math.max(kkx.d1(), Math.max(kkx.d2(), kkx.d3()));
+        return Math.min(numSamples, Math.max(1, (int) Math.sqrt(Math.sqrt(budget * Math.min(weight, 1)))));
+    }
 
-        // if there is glossure, we need to calculate the reflection rays
-        BlackBoard blackBoard = new BlackBoard(intersection.point, intersection.material.glossure,
-                r.getNormal(), r).setNormal(intersection.normal);
-        return blackBoard.castRays();
+    /**
+     * Calculates the budget of each secondary ray of a blackboard of a glossy or diffuse surface -
+     * the rays of the blackboard share the rest of the path's budget (without the rays themselves) equally
+     * @param budget - budget of the secondary rays of the glossy and diffuse surfaces along the path
+     * @param numSamples - number of samples per side of the blackboard
+     * @return the budget of each ray of the blackboard
+     */
+    protected double rayBudget(double budget, int numSamples) {
+        int rays = numSamples * numSamples;
+        return Math.max(0, (budget - rays) / rays);
     }
 
+    /**
+     * Creates the blackboard of the secondary rays of a glossy or diffuse surface
+     * @param intersection - shading context of the intersection point on geometry
+     * @param direction - direction of the central secondary ray
+     * @param distance - distance of the blackboard from the intersection point
+     * @param numSamples - number of samples per side of the blackboard
+     * @return the blackboard
+     */
+    protected BlackBoard secondaryBlackBoard(ShadingContext intersection, Vector direction, double distance,
+                                             int numSamples) {
+        return new BlackBoard(intersection.point, distance, direction.getNormal(), direction)
+                .setNormal(intersection.normal).setNumSamples(numSamples).setAdaptive(adaptiveSampling)
+                .setSampler(sampler);
+    }
 
     /**
-     * Calculate global effect for either reflection or transperancy.
-     * @param rays - ray hitting intersection point
+     * Calculates the color seen along a secondary (reflected or refracted) ray
+     * @param ray - the secondary ray
      * @param level - depth of recursive calls
-     * @param initialK - initial mekadem hanhata of reflection or transperancy
-     * @param kx - mekadem hanhata of currnent material
-     * @return color of intersection point from global effect
+     * @param kkx - mekadem hanhata accumulated along the path
+     * @param budget - budget of the secondary rays of the glossy and diffuse surfaces along the path
+     * @return the color seen along the ray (not scaled by the material's coefficient)
      */
-    private Color calcGlobalEffect(List<Ray> rays, int level, Double3 initialK, Double3 kx) {
-        Double3 kkx = initialK.product(kx);
-        Intersection intersection;
-        if (kkx.lowerThan(MIN_CALC_COLOR_K)) {
-            return Color.BLACK;
-        }
-        Color global = new Color(); //Black final cannot be changed so
-
-        for (Ray ray : rays) {
-            intersection = findClosestIntersection(ray);
-            if (intersection == null) global = global.add(scene.background.scale(kx));
-            else if (preprocessIntersection(intersection, ray.getDirection())) {
-                global = global.add(calcColor(intersection, ray, level - 1, kkx).scale(kx));
-            }
-        }
-
-        return global.scale(1D / rays.size());
+    private Color calcSecondaryColor(Ray ray, int level, Double3 kkx, double budget) {
+        Intersection intersection = findClosestIntersection(ray);
+        return intersection == null ? scene.background : calcColor(intersection, ray, level - 1, kkx, budget);
     }
 
     /**
      * Calculates the color from global effects of intersection point
-     * @param intersection - intersection point on geometry
+     * @param intersection - shading context of the intersection point on geometry
      * @param ray - hitting ray
      * @param level - level of recursive calls
      * @param k - currnt mekadem hanhata of global effect
+     * @param budget - budget of the secondary rays of the glossy and diffuse surfaces along the path
      * @return  color from global effects of intersection point
      */
-    private Color calcGlobalEffects(Intersection intersection, Ray ray, int level, Double3 k) {
-        return calcGlobalEffect(refractionRay(ray, intersection), level, k, intersection.material.kt)
-                .add(calcGlobalEffect(reflectionRay(ray, intersection), level, k, intersection.material.kr));
+    private Color calcGlobalEffects(ShadingContext intersection, Ray ray, int level, Double3 k, double budget) {
+        Material material = intersection.material;
+        Vector v = ray.getDirection();
+        Vector r = v.subtract(intersection.normal.scale(2*v.dotProduct(intersection.normal)));
+        return calcGlobalEffect(intersection, v, material.diffusion, material.diffusionSamples, level, k, material.kt,
+                        budget)
+                .add(calcGlobalEffect(intersection, r, material.glossure, material.glossureSamples, level, k,
+                        material.kr, budget));
     }
 
     /**
-     * Calculates a list of intersections of a ray with geometries.
-     * Then finds the closest point from a list of points to the ray's head.
-     * The method iterates through the list of points and calculates the squared distance
-     * from the ray's head to each point, keeping track of the closest point found so far.
+     * Finds the intersection of a ray with the scene's geometries closest to the ray's head.
+     * Ray tracers with an acceleration structure override this method.
      *
      * @param ray - the ray to check for intersections
-     * @return the closest point to the ray's head, or null if the list is null
+     * @return the closest intersection to the ray's head, or null if there are no intersections
      */
-    private Intersection findClosestIntersection(Ray ray) {
-        List<Intersection> intersections = scene.geometries.calculateIntersectionsHelper(ray, Double.POSITIVE_INFINITY);
-        if (intersections == null) {
-            return null; // No intersection found
-        }
-
-        Intersection closestPoint = intersections.getFirst();
-        double minDistance = ray.getHead().distanceSquared(closestPoint.point);
+    protected Intersection findClosestIntersection(Ray ray) {
+        return scene.geometries.calculateClosestIntersection(ray, Double.POSITIVE_INFINITY);
+    }
 
-        for (int i = 1; i < intersections.size(); i++) {
-            Intersection currentPoint = intersections.get(i);
-            double currentDistance = ray.getHead().distanceSquared(currentPoint.point);
-            // Update the closest point and minDistance if the current distance is smaller
-            if (currentDistance < minDistance) {
-                minDistance = currentDistance;
-                closestPoint = currentPoint;
-            }
-        }
-        // Return the closest point found
-        return closestPoint;
+    /**
+     * Calculates how much light passes through the scene's geometries along a shadow ray -
+     * the product of the transparency coefficients of all the geometries hit by the ray.
+     * Ray tracers with an acceleration structure override this method.
+     *
+     * @param ray - the shadow ray
+     * @param maxDistance - the distance to the light source
+     * @return the transparency along the ray
+     */
+    protected Double3 calculateTransparency(Ray ray, double maxDistance) {
+        return scene.geometries.calculateTransparency(ray, maxDistance);
     }
 }
@@ -0,0 +1,138 @@
+package renderer;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * TileScheduler is a helper class for multi-threaded rendering. It splits the image
+ * into square tiles and deals them out to the rendering threads in contiguous runs,
+ * so neighbouring pixels (which usually hit the same geometries) are rendered by the same thread.<br/>
+ * Each thread takes the tiles from the front of its own queue, and when its queue runs out
+ * it steals tiles from the back of the other threads' queues - so a thread which got cheap
+ * tiles helps the ones which got expensive tiles, without any lock on the way.<br/>
+ * The progress is counted by each thread separately, and the counters are summed for printing.
+ */
+class TileScheduler {
+    /**
+     * Immutable class for a tile of the image - a rectangle of pixels
+     * @param col0 first pixel column of the tile
+     * @param row0 first pixel row of the tile
+     * @param col1 column after the last pixel column of the tile
+     * @param row1 row after the last pixel row of the tile
+     */
+    record Tile(int col0, int row0, int col1, int row1) {
+        /**
+         * Amount of pixels in the tile
+         * @return the amount of pixels
+         */
+        int pixels() { return (col1 - col0) * (row1 - row0); }
+    }
+
+    /**
+     * The scheduling state of one rendering thread - its own queue of tiles and its progress counter
+     */
+    final class Worker {
+        /** The tiles dealt to the thread */
+        private final ConcurrentLinkedDeque<Tile> tiles = new ConcurrentLinkedDeque<>();
+        /** Index of the worker - the first victim for stealing is the next worker */
+        private final int index;
+        /** Amount of pixels rendered by the thread (written by the thread only) */
+        private volatile long pixels = 0l;
+
+        /**
+         * Creates the worker
+         * @param index index of the worker
+         */
+        private Worker(int index) { this.index = index; }
+
+        /**
+         * Provides the next tile for the thread - from its own queue, or stolen from another thread
+         * @return the next tile, or null if all the tiles have been taken
+         */
+        Tile nextTile() {
+            Tile tile = tiles.pollFirst();
+            for (int i = 1; tile == null && i < workers.length; ++i)
+                tile = workers[(index + i) % workers.length].tiles.pollLast();
+            return tile;
+        }
+
+        /**
+         * Finish tile processing by updating the thread's progress and printing the progress percentage
+         * @param tile the rendered tile
+         */
+        void tileDone(Tile tile) {
+            pixels += tile.pixels();
+            if (print) printProgress();
+        }
+    }
+
+    /** The workers - one for each rendering thread */
+    private final Worker[] workers;
+    /** Total amount of pixels in the generated image */
+    private final long     totalPixels;
+
+    /** Flag of debug printing of progress percentage */
+    private final boolean  print;
+    /** Progress percentage printing interval (in tenths of percent) */
+    private final long     printInterval;
+    /** Last printed progress update percentage */
+    private int            lastPrinted   = 0;
+    /** Printing format */
+    private static final String PRINT_FORMAT = "%5.1f%%\r";
+
+    /**
+     * Split the image into tiles and deal them to the threads
+     * @param maxRows  the amount of pixel rows
+     * @param maxCols  the amount of pixel columns
+     * @param tileSize the size of a tile side in pixels
+     * @param threads  the amount of rendering threads
+     * @param interval print interval in percents, 0 if printing is not required
+     */
+    TileScheduler(int maxRows, int maxCols, int tileSize, int threads, double interval) {
+        if (tileSize <= 0) throw new IllegalArgumentException("Tile size must be positive");
+        if (threads <= 0) throw new IllegalArgumentException("Amount of threads must be positive");
+        totalPixels   = (long) maxRows * maxCols;
+        printInterval = (long) (interval * 10);
+        print         = printInterval != 0;
+
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; ++i) workers[i] = new Worker(i);
+
+        // deal the tiles in row-major order, a contiguous run of tiles to each worker
+        int tileRows  = (maxRows + tileSize - 1) / tileSize;
+        int tileCols  = (maxCols + tileSize - 1) / tileSize;
+        int tileCount = tileRows * tileCols;
+        for (int t = 0; t < tileCount; ++t) {
+            int row0 = t / tileCols * tileSize;
+            int col0 = t % tileCols * tileSize;
+            workers[(int) ((long) t * threads / tileCount)].tiles.addLast(new Tile(col0, row0,
+                    Math.min(col0 + tileSize, maxCols), Math.min(row0 + tileSize, maxRows)));
+        }
+        if (print) System.out.printf(PRINT_FORMAT, 0d);
+    }
+
+    /**
+     * Returns the scheduling state of a rendering thread
+     * @param index index of the thread
+     * @return the worker of the thread
+     */
+    Worker worker(int index) { return workers[index]; }
+
+    /**
+     * Sums the progress counters of all the threads
+     * @return the amount of rendered pixels
+     */
+    long pixelsDone() {
+        long sum = 0;
+        for (Worker worker : workers) sum += worker.pixels;
+        return sum;
+    }
+
+    /** Print the progress percentage if it has advanced by the printing interval */
+    private synchronized void printProgress() {
+        int percentage = (int) (1000l * pixelsDone() / totalPixels);
+        if (percentage - lastPrinted >= printInterval) {
+            lastPrinted = percentage;
+            System.out.printf(PRINT_FORMAT, percentage / 10d);
+        }
+    }
+}
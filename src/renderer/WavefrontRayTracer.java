@@ -0,0 +1,263 @@
+package renderer;
+
+import geometries.Geometries;
+import geometries.Geometry;
+import geometries.Intersectable;
+import geometries.Intersectable.Intersection;
+import lighting.LightSource;
+import primitives.*;
+import scene.Scene;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Wavefront ray tracer - the shading model of {@link SimpleRayTracer}, traced breadth-first for a batch of rays
+ * (such as all the rays of a tile of the image).<br/>
+ * Each wave of rays passes through separate stages:
+ * <ol>
+ * <li>intersect - the closest intersections of all the rays of the wave</li>
+ * <li>sort - the hits are ordered by their material, and then by their geometry</li>
+ * <li>shade - the emission and the lights of the hits, emitting a batch of shadow rays
+ * and a batch of secondary rays (the next wave)</li>
+ * <li>shadows - the transparency along all the shadow rays of the wave</li>
+ * </ol>
+ * and the waves are repeated until there are no more secondary rays. A wave is at most a chunk of
+ * {@value #MAX_WAVE} rays (plus the fan-out of a single hit) - the rays beyond it wait in further chunks, which are
+ * traced depth first, so the fan-out of the glossy and diffuse surfaces never piles up whole levels of the
+ * ray tree in memory. So neighbouring rays which hit
+ * the same geometry are processed together, sharing the code and the data of the geometry,
+ * and each stage is a simple loop over arrays - a natural place for vectorized kernels.<br/>
+ * The colors are accumulated straight into the colors of the primary rays.
+ * The blackboards of the soft shadows and of the glossy and diffuse surfaces are always sampled fully
+ * (not adaptively). A single ray is traced as a batch of one ray.
+ */
+public class WavefrontRayTracer extends IterativeRayTracer {
+    /** Maximal amount of rays of a wave - more rays are split into chunks */
+    static final int MAX_WAVE = 4096;
+    /**
+     * The sorting ranks of the scene's geometries - ordered by their materials (by the first appearance of each
+     * material), and by their order in the scene within a material. Built on the first wave.
+     */
+    private volatile IdentityHashMap<Geometry, Integer> ranks = null;
+
+    /**
+     * A batch of shadow rays - the shadow rays of a light at a hit form a group (several rays for a light of
+     * a radius), and the light's contribution is added by the average transparency of the group
+     */
+    private static final class ShadowBatch {
+        /** The shadow rays */
+        private Ray[] rays = new Ray[64];
+        /** The distances to the lights along the shadow rays */
+        private double[] distances = new double[64];
+        /** The groups of the shadow rays */
+        private int[] groups = new int[64];
+        /** Amount of shadow rays */
+        private int size = 0;
+        /** The weighted contributions of the lights of the groups (without the transparency) */
+        private Double3[] contributions = new Double3[16];
+        /** The attenuations accumulated along the paths of the hits of the groups */
+        private Double3[] ks = new Double3[16];
+        /** The indices of the primary rays of the groups */
+        private int[] origins = new int[16];
+        /** The sum of the transparencies along the shadow rays of each group */
+        private Double3[] transparencies = new Double3[16];
+        /** Amount of shadow rays of each group */
+        private int[] counts = new int[16];
+        /** Amount of groups */
+        private int groupCount = 0;
+
+        /**
+         * Adds a group of shadow rays
+         * @param shadowRays   the shadow rays of the group
+         * @param distance     the distance to the light
+         * @param contribution the weighted contribution of the light (without the transparency)
+         * @param k            the attenuation accumulated along the path of the hit
+         * @param origin       the index of the primary ray
+         */
+        void add(List<Ray> shadowRays, double distance, Double3 contribution, Double3 k, int origin) {
+            if (groupCount == contributions.length) {
+                int capacity = 2 * groupCount;
+                contributions = Arrays.copyOf(contributions, capacity);
+                ks = Arrays.copyOf(ks, capacity);
+                origins = Arrays.copyOf(origins, capacity);
+                transparencies = Arrays.copyOf(transparencies, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+            }
+            contributions[groupCount] = contribution;
+            ks[groupCount] = k;
+            origins[groupCount] = origin;
+            transparencies[groupCount] = Double3.ZERO;
+            counts[groupCount] = shadowRays.size();
+            for (Ray ray : shadowRays) {
+                if (size == rays.length) {
+                    rays = Arrays.copyOf(rays, 2 * size);
+                    distances = Arrays.copyOf(distances, 2 * size);
+                    groups = Arrays.copyOf(groups, 2 * size);
+                }
+                rays[size] = ray;
+                distances[size] = distance;
+                groups[size++] = groupCount;
+            }
+            ++groupCount;
+        }
+    }
+
+    /**
+     * Constructs a wavefront ray tracer for the scene
+     *
+     * @param scene the scene to be rendered
+     */
+    public WavefrontRayTracer(Scene scene) {
+        super(scene);
+    }
+
+    @Override
+    public Color traceRay(Ray ray) {
+        return traceRays(List.of(ray))[0];
+    }
+
+    /**
+     * Traces a batch of primary rays breadth-first, wave by wave
+     *
+     * @param rays the primary rays
+     * @return the colors of the rays (in the order of the rays)
+     */
+    public Color[] traceRays(List<Ray> rays) {
+        double[] colors = new double[3 * rays.size()];
+        ArrayDeque<RayBatch> chunks = new ArrayDeque<>();
+        for (int i = rays.size() - 1; i >= 0; --i) { // pushed backwards, so the first chunk is traced first
+            if (i % MAX_WAVE == MAX_WAVE - 1 || i == rays.size() - 1)
+                chunks.push(new RayBatch(Math.min(i + 1, MAX_WAVE)));
+            chunks.peek().push(rays.get(i), 1, 1, 1, INITIAL_K, MAX_CALC_COLOR_LEVEL, sampleBudget, i);
+        }
+        while (!chunks.isEmpty()) {
+            RayBatch wave = chunks.pop();
+            // intersect
+            Intersection[] hits = new Intersection[wave.size];
+            for (int i = 0; i < wave.size; ++i) hits[i] = findClosestIntersection(wave.rays[i]);
+
+            // sort - the hits by their material and geometry, the misses get the background
+            long[] order = new long[wave.size];
+            int hitCount = 0;
+            for (int i = 0; i < wave.size; ++i)
+                if (hits[i] == null)
+                    accumulate(colors, wave.origins[i], scene.background.rgb,
+                            wave.weights[3 * i], wave.weights[3 * i + 1], wave.weights[3 * i + 2]);
+                else
+                    order[hitCount++] = (long) rank(hits[i].geometry) << 32 | i;
+            Arrays.sort(order, 0, hitCount);
+
+            // shade - emitting the shadow rays and the next wave (in chunks)
+            RayBatch next = new RayBatch(Math.min(hitCount, MAX_WAVE));
+            ShadowBatch shadows = new ShadowBatch();
+            for (int h = 0; h < hitCount; ++h) {
+                int i = (int) order[h];
+                Ray ray = wave.rays[i];
+                int origin = wave.origins[i];
+                int level = wave.levels[i];
+                if (level == MAX_CALC_COLOR_LEVEL) // a primary ray
+                    accumulate(colors, origin, scene.ambientLight.getIntensity().rgb, hits[i].geometry.getMaterial().ka);
+                ShadingContext hit = preprocessIntersection(hits[i], ray.getDirection(), level);
+                if (hit == null) continue;
+                int w = 3 * i;
+                double w1 = wave.weights[w], w2 = wave.weights[w + 1], w3 = wave.weights[w + 2];
+                Double3 k = new Double3(wave.ks[w], wave.ks[w + 1], wave.ks[w + 2]);
+                accumulate(colors, origin, hits[i].geometry.getEmission().rgb, w1, w2, w3);
+                for (LightSource light : scene.lights)
+                    if (!setLightSource(hit, light) && hit.lNormal * hit.vNormal > 0) { // sign(nl) == sign(nv)
+                        Double3 effects = light.getIntensity(hit.point).rgb
+                                .product(calcDiffusive(hit).add(calcSpecular(hit)));
+                        emitShadowRays(shadows, hit,
+                                new Double3(effects.d1() * w1, effects.d2() * w2, effects.d3() * w3), k, origin);
+                    }
+                if (level > 1) {
+                    Material material = hit.material;
+                    Vector v = ray.getDirection();
+                    Vector r = v.subtract(hit.normal.scale(2 * v.dotProduct(hit.normal)));
+                    pushSecondary(next, hit, v, material.diffusion, material.diffusionSamples, material.kt,
+                            w1, w2, w3, k, level, wave.budgets[i], origin);
+                    pushSecondary(next, hit, r, material.glossure, material.glossureSamples, material.kr,
+                            w1, w2, w3, k, level, wave.budgets[i], origin);
+                    if (next.size >= MAX_WAVE) {
+                        chunks.push(next);
+                        next = new RayBatch(MAX_WAVE);
+                    }
+                }
+            }
+            if (next.size > 0) chunks.push(next);
+
+            // shadows
+            for (int s = 0; s < shadows.size; ++s) {
+                int group = shadows.groups[s];
+                shadows.transparencies[group] = shadows.transparencies[group]
+                        .add(calculateTransparency(shadows.rays[s], shadows.distances[s]));
+            }
+            for (int g = 0; g < shadows.groupCount; ++g) {
+                Double3 ktr = shadows.transparencies[g].reduce(shadows.counts[g]);
+                if (!ktr.product(shadows.ks[g]).lowerThan(MIN_CALC_COLOR_K))
+                    accumulate(colors, shadows.origins[g], shadows.contributions[g], ktr);
+            }
+        }
+        Color[] result = new Color[rays.size()];
+        for (int i = 0; i < result.length; ++i)
+            result[i] = new Color(colors[3 * i], colors[3 * i + 1], colors[3 * i + 2]);
+        return result;
+    }
+
+    /**
+     * The sorting rank of a geometry - the ranks are (re)built if the geometry is not ranked yet
+     * (on the first wave, or after geometries were added to the scene)
+     * @param geometry the geometry
+     * @return the rank
+     */
+    private int rank(Geometry geometry) {
+        IdentityHashMap<Geometry, Integer> current = ranks;
+        Integer rank = current == null ? null : current.get(geometry);
+        if (rank != null) return rank;
+        synchronized (this) {
+            current = ranks;
+            if (current == null || !current.containsKey(geometry))
+                ranks = current = rankGeometries(scene.geometries);
+        }
+        return current.getOrDefault(geometry, current.size());
+    }
+
+    /**
+     * Ranks the geometries of the scene by their materials, and by their order within a material
+     * @param geometries the geometries of the scene
+     * @return the ranks of the geometries
+     */
+    private static IdentityHashMap<Geometry, Integer> rankGeometries(Geometries geometries) {
+        List<Geometry> flat = new ArrayList<>();
+        for (Intersectable intersectable : geometries.getGeometries())
+            if (intersectable instanceof Geometry geometry) flat.add(geometry);
+        IdentityHashMap<Material, Integer> materials = new IdentityHashMap<>();
+        for (Geometry geometry : flat) materials.putIfAbsent(geometry.getMaterial(), materials.size());
+        flat.sort(Comparator.comparingInt(geometry -> materials.get(geometry.getMaterial()))); // stable
+        IdentityHashMap<Geometry, Integer> ranks = new IdentityHashMap<>();
+        for (Geometry geometry : flat) ranks.putIfAbsent(geometry, ranks.size());
+        return ranks;
+    }
+
+    /**
+     * Emits the shadow rays of a light at a hit - a single ray, or the rays of the light's blackboard
+     * @param shadows      the batch of the shadow rays
+     * @param hit          the shading context of the hit, with the light source set
+     * @param contribution the weighted contribution of the light (without the transparency)
+     * @param k            the attenuation accumulated along the path of the hit
+     * @param origin       the index of the primary ray
+     */
+    private void emitShadowRays(ShadowBatch shadows, ShadingContext hit, Double3 contribution, Double3 k, int origin) {
+        Vector pointToLight = hit.l.scale(-1);
+        double lightDistance = hit.light.getDistance(hit.point);
+        shadows.add(hit.light.getRadius() == 0
+                        ? List.of(new Ray(pointToLight, hit.normal, hit.point))
+                        : lightBlackBoard(hit, pointToLight, lightDistance).castRays(),
+                lightDistance, contribution, k, origin);
+    }
+}
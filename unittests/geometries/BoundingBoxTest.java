@@ -0,0 +1,97 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for geometries.BoundingBox class and the bounding boxes of the geometries.
+ */
+class BoundingBoxTest {
+    /** Default constructor to satisfy JavaDoc generator */
+    BoundingBoxTest() { /* to satisfy JavaDoc generator */ }
+
+    /** A box for the tests: (0,0,0)-(2,2,2) */
+    private final BoundingBox box = new BoundingBox(0, 0, 0, 2, 2, 2);
+
+    /**
+     * Test method for {@link geometries.BoundingBox#BoundingBox(double, double, double, double, double, double)}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: regular box
+        assertDoesNotThrow(() -> new BoundingBox(-1, -1, -1, 1, 1, 1), "Failed constructing a correct box");
+        // TC02: minimum bigger than maximum
+        assertThrows(IllegalArgumentException.class, () -> new BoundingBox(1, -1, -1, -1, 1, 1),
+                "Constructed a box with minimum bigger than maximum");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: flat box (e.g. of an axis-aligned triangle)
+        assertDoesNotThrow(() -> new BoundingBox(-1, -1, 0, 1, 1, 0), "Failed constructing a flat box");
+    }
+
+    /**
+     * Test method for {@link geometries.BoundingBox#intersects(Ray, double)}.
+     */
+    @Test
+    void testIntersects() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: ray passes through the box
+        assertTrue(box.intersects(new Ray(new Vector(1, 1, 1), new Point(-1, -1, -1)), Double.POSITIVE_INFINITY),
+                "Ray through the box is rejected");
+        // TC02: ray misses the box
+        assertFalse(box.intersects(new Ray(new Vector(1, 0, 0), new Point(-1, 3, 1)), Double.POSITIVE_INFINITY),
+                "Ray missing the box is not rejected");
+        // TC03: box is behind the ray
+        assertFalse(box.intersects(new Ray(new Vector(-1, 0, 0), new Point(-1, 1, 1)), Double.POSITIVE_INFINITY),
+                "Box behind the ray is not rejected");
+        // TC04: ray starts inside the box
+        assertEquals(0, box.entryDistance(new Ray(new Vector(1, 2, 3), new Point(1, 1, 1)), Double.POSITIVE_INFINITY),
+                "Ray starting inside the box must enter it at distance 0");
+        // TC05: box is further than the max distance
+        assertFalse(box.intersects(new Ray(new Vector(1, 0, 0), new Point(-5, 1, 1)), 4),
+                "Box beyond the max distance is not rejected");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: ray parallel to an axis inside the slab
+        assertEquals(1, box.entryDistance(new Ray(new Vector(0, 0, 1), new Point(1, 1, -1)), Double.POSITIVE_INFINITY),
+                "Wrong entry distance for a ray parallel to the axes");
+        // TC12: max distance exactly at the box
+        assertTrue(box.intersects(new Ray(new Vector(1, 0, 0), new Point(-5, 1, 1)), 5),
+                "Box at the max distance is rejected");
+        // TC13: infinite box
+        assertTrue(BoundingBox.INFINITE.intersects(new Ray(new Vector(0, 0, 1), Point.ZERO), Double.POSITIVE_INFINITY),
+                "Infinite box rejects a ray");
+    }
+
+    /**
+     * Test method for the bounding boxes of the geometries.
+     */
+    @Test
+    void testGeometryBoxes() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: sphere
+        BoundingBox sphere = new Sphere(2, new Point(1, 2, 3)).getBoundingBox();
+        assertEquals(-1, sphere.minX, 1e-10, "Wrong sphere box");
+        assertEquals(5, sphere.maxZ, 1e-10, "Wrong sphere box");
+        // TC02: triangle
+        BoundingBox triangle = new Triangle(new Point(0, 0, 1), new Point(2, 0, 1), new Point(0, 3, 1))
+                .getBoundingBox();
+        assertEquals(3, triangle.maxY, 1e-10, "Wrong triangle box");
+        assertEquals(1, triangle.minZ, 1e-10, "Wrong triangle box");
+        // TC03: circle lying in the XY plane
+        BoundingBox circle = new Circle(Point.ZERO, 2, Vector.AXIS_Z).getBoundingBox();
+        assertEquals(2, circle.maxX, 1e-10, "Wrong circle box");
+        assertEquals(0, circle.maxZ, 1e-10, "Wrong circle box");
+        // TC04: cylinder along the Y axis
+        BoundingBox cylinder = new Cylinder(1, new Ray(Vector.AXIS_Y, Point.ZERO), 5).getBoundingBox();
+        assertEquals(-1, cylinder.minX, 1e-10, "Wrong cylinder box");
+        assertEquals(5, cylinder.maxY, 1e-10, "Wrong cylinder box");
+        // TC05: unbounded plane and tube
+        assertTrue(new Plane(Point.ZERO, Vector.AXIS_Z).getBoundingBox().isInfinite(), "Plane must be unbounded");
+        assertTrue(new Tube(1, new Ray(Vector.AXIS_Z, Point.ZERO)).getBoundingBox().isInfinite(),
+                "Tube must be unbounded");
+    }
+}
@@ -225,4 +225,71 @@ class CylinderTest {
                 "ERROR: wrong intersection points");
 
     }
+
+    /**
+     * Test method for {@link geometries.Cylinder#calculateIntersectionsHelper(Ray, double)}
+     * at the boundaries of the lateral surface and the bases
+     */
+    @Test
+    void testFindIntersectionsBoundaries() {
+        // =========== Boundary Values Tests =====================
+        //test 01: ray parallel to the axis inside the cylinder - the bases only(2 points)
+        assertEquals(List.of(new Point(1,1,2), new Point(1,1,4)),
+                cylinder.findIntersections(new Ray(new Vector(0,0,1), new Point(1,1,-1))),
+                "ERROR: wrong intersection points");
+        //test 02: ray parallel to the axis on the lateral surface(0 points)
+        assertNull(cylinder.findIntersections(new Ray(new Vector(0,0,1), new Point(3,0,-1))),
+                "ERROR: there must be 0 points(null)");
+        //test 03: ray tangent to the lateral surface(0 points)
+        assertNull(cylinder.findIntersections(new Ray(new Vector(0,1,0), new Point(3,-5,3))),
+                "ERROR: there must be 0 points(null)");
+        //test 04: ray through the rim of the bottom base and then the top base(1 point)
+        assertEquals(List.of(new Point(1,0,4)),
+                cylinder.findIntersections(new Ray(new Vector(-2,0,2), new Point(5,0,0))),
+                "ERROR: wrong intersection points");
+        //test 05: ray through the rim of the top base from the bottom base(1 point)
+        assertEquals(List.of(new Point(1,0,2)),
+                cylinder.findIntersections(new Ray(new Vector(2,0,2), new Point(-1,0,0))),
+                "ERROR: wrong intersection points");
+        //test 06: ray starts inside the cylinder and goes out through the lateral surface(1 point)
+        assertEquals(List.of(new Point(3,0,3)),
+                cylinder.findIntersections(new Ray(new Vector(1,0,0), new Point(0,0,3))),
+                "ERROR: wrong intersection points");
+        //test 07: ray starts inside the cylinder and goes out through the top base(1 point)
+        assertEquals(List.of(new Point(0,0,4)),
+                cylinder.findIntersections(new Ray(new Vector(0,0,1), new Point(0,0,3))),
+                "ERROR: wrong intersection points");
+        //test 08: the distance ends exactly at the intersection point(1 point)
+        assertEquals(List.of(new Point(3,0,3)),
+                cylinder.findIntersections(new Ray(new Vector(1,0,0), new Point(0,0,3)), 3),
+                "ERROR: wrong intersection points");
+        //test 09: the distance ends just before the intersection point(0 points)
+        assertNull(cylinder.findIntersections(new Ray(new Vector(1,0,0), new Point(0,0,3)), 2.99),
+                "ERROR: there must be 0 points(null)");
+    }
+
+    /**
+     * Test method for {@link geometries.Cylinder#calculateIntersectionsHelper(Ray, double)}
+     * with cylinders built by the head and the tail of their axis
+     */
+    @Test
+    void testFindIntersectionsHeadTail() {
+        // ============ Equivalence Partitions Tests ==============
+        //test 01: the same cylinder as by the axis ray and the height(2 points)
+        Cylinder headTail = new Cylinder(3, new Point(0,0,2), new Point(0,0,4));
+        assertEquals(List.of(new Point(0,0,2), new Point(0,0,4)),
+                headTail.findIntersections(new Ray(new Vector(0,0,1), new Point(0,0,-1))),
+                "ERROR: wrong intersection points");
+        assertEquals(List.of(new Point(1,0,2)),
+                headTail.findIntersections(new Ray(new Vector(2,0,2), new Point(-1,0,0))),
+                "ERROR: wrong intersection points");
+        //test 02: a cylinder whose axis is not aligned to the coordinate axes(2 points)
+        Cylinder tilted = new Cylinder(1, Point.ZERO, new Point(2,2,0));
+        assertEquals(List.of(new Point(1,1,1), new Point(1,1,-1)),
+                tilted.findIntersections(new Ray(new Vector(0,0,-1), new Point(1,1,5))),
+                "ERROR: wrong intersection points");
+        //test 03: the tilted cylinder's line is hit beyond its top base(0 points)
+        assertNull(tilted.findIntersections(new Ray(new Vector(0,0,-1), new Point(3,3,5))),
+                "ERROR: there must be 0 points(null)");
+    }
 }
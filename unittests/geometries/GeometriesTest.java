@@ -53,4 +53,111 @@ class GeometriesTest {
                 new Point(0.2, 0.2, 5))).size(),
                 "The number of intersection points is not correct");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test for the bounding volume hierarchy of the collection and the conservative bounding-box rejection.
+     * Both must find exactly the intersections a plain loop over the geometries finds,
+     * and must be rebuilt when geometries are added after the first query.
+     */
+    @Test
+    void testHierarchy() {
+        Geometries many = new Geometries(new Plane(new Point(0, 0, -100), Vector.AXIS_Z));
+        java.util.Random random = new java.util.Random(7);
+        for (int i = 0; i < 500; ++i) {
+            Point center = new Point(random.nextDouble() * 100 - 50, random.nextDouble() * 100 - 50,
+                    random.nextDouble() * 100 - 50);
+            many.add(i % 2 == 0 ? new Sphere(1 + random.nextDouble() * 3, center)
+                    : new Triangle(center, center.add(new Vector(3, 0, 0)), center.add(new Vector(0, 3, 1))));
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+        // Test 01: random rays - same amount of intersections as the plain loop
+        for (int i = 0; i < 200; ++i) {
+            Ray ray = new Ray(new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1),
+                    new Point(random.nextDouble() * 20 - 10, random.nextDouble() * 20 - 10, 100));
+            double maxDistance = i % 2 == 0 ? Double.POSITIVE_INFINITY : 150;
+            int expected = 0;
+            double closest = Double.POSITIVE_INFINITY;
+            for (Intersectable geometry : many.getGeometries()) {
+                var list = geometry.calculateIntersections(ray, maxDistance);
+                assertEquals(list != null, geometry.hasIntersections(ray, maxDistance),
+                        "The any-hit query must agree with the intersections");
+                if (list != null) expected += list.size();
+                if (list != null)
+                    for (var intersection : list)
+                        closest = Math.min(closest, intersection.getPoint().distance(ray.getHead()));
+            }
+            // with and without the hierarchy and the conservative bounding-box rejection
+            for (int mode = 0; mode < 4; ++mode) {
+                var intersections = many.setBVH(mode < 2).setCBR(mode % 2 == 0)
+                        .calculateIntersectionsHelper(ray, maxDistance);
+                assertEquals(expected, intersections == null ? 0 : intersections.size(),
+                        "The number of intersection points is not correct");
+                var nearest = many.calculateClosestIntersection(ray, maxDistance);
+                assertEquals(closest, nearest == null ? Double.POSITIVE_INFINITY
+                        : nearest.getPoint().distance(ray.getHead()), 1e-9, "Wrong closest intersection");
+            }
+        }
+        many.setBVH(true).setCBR(true);
+
+        // =========== Boundary Values Tests =====================
+        // Test 01: a geometry added after the first query must be found
+        Ray ray = new Ray(new Vector(0, 0, -1), new Point(200, 200, 100));
+        assertEquals(1, many.calculateIntersectionsHelper(ray).size(), "Only the plane should be intersected");
+        many.add(new Sphere(1, new Point(200, 200, 0)));
+        assertEquals(3, many.calculateIntersectionsHelper(ray).size(),
+                "The hierarchy must be rebuilt after adding geometries");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#calculateTransparency(Ray, double)}.
+     */
+    @Test
+    void testCalculateTransparency() {
+        Geometries geometries = new Geometries(
+                new Sphere(1, new Point(0, 0, -5)).setMaterial(new Material().setkt(0.5)),
+                new Triangle(new Point(-1, -1, -10), new Point(3, -1, -10), new Point(-1, 3, -10))
+                        .setMaterial(new Material().setkt(0.4)),
+                new Plane(new Point(0, 0, -20), Vector.AXIS_Z));
+        Ray ray = new Ray(new Vector(0, 0, -1), Point.ZERO);
+
+        for (int mode = 0; mode < 4; ++mode) {
+            geometries.setBVH(mode < 2).setCBR(mode % 2 == 0);
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: the ray passes through transparent geometries only (both sphere walls and the triangle)
+            assertEquals(new Double3(0.1), geometries.calculateTransparency(ray, 15),
+                    "Wrong transparency through transparent geometries");
+            // TC02: the ray is blocked by the opaque plane
+            assertEquals(Double3.ZERO, geometries.calculateTransparency(ray, 25),
+                    "An opaque geometry must block the ray");
+            // TC03: the ray misses all the geometries
+            assertEquals(Double3.ONE, geometries.calculateTransparency(new Ray(Vector.AXIS_Z, Point.ZERO), 25),
+                    "Nothing should block a ray which misses all the geometries");
+
+            // =========== Boundary Values Tests =====================
+            // TC11: the distance ends before the triangle
+            assertEquals(new Double3(0.25), geometries.calculateTransparency(ray, 8),
+                    "Geometries beyond the distance must not block the ray");
+        }
+    }
+
+    /**
+     * Test for {@link geometries.Geometries#getBoundingBox()}
+     */
+    @Test
+    void testGetBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        // Test 01: bounded geometries
+        BoundingBox box = geometries.getBoundingBox();
+        assertEquals(-2, box.minX, 1e-10, "Wrong bounding box of the collection");
+        assertEquals(-15, box.minZ, 1e-10, "Wrong bounding box of the collection");
+        assertEquals(0, box.maxZ, 1e-10, "Wrong bounding box of the collection");
+        // Test 02: an unbounded geometry in the collection
+        assertTrue(new Geometries(new Sphere(1, Point.ZERO), new Plane(Point.ZERO, Vector.AXIS_Z))
+                .getBoundingBox().isInfinite(), "The collection must be unbounded");
+
+        // =========== Boundary Values Tests =====================
+        // Test 01: empty collection
+        assertNull(new Geometries().getBoundingBox(), "An empty collection has no bounding box");
+    }
+}
@@ -110,6 +110,28 @@ class PolygonTests {
       //test 03: check case of intersection the plain of the pentagon against vertex (0 points)
       assertNull(pentagon.findIntersections(new Ray(new Vector(-5,-3,0), p1)),
               "ERROR: there must be 0 points(null)");
+      //test 04: check case of a square facing the z axis, with its vertices in clockwise order
+      Polygon square = new Polygon(new Point(0, 0, 1), new Point(0, 2, 1), new Point(2, 2, 1), new Point(2, 0, 1));
+      assertEquals(List.of(new Point(1.5, 0.5, 1)),
+              square.findIntersections(new Ray(new Vector(0.5, -0.5, 1), new Point(1, 1, 0))),
+              "ERROR: wrong intersection point");
+      //test 05: check case of the square missing the ray beside an edge (0 points)
+      assertNull(square.findIntersections(new Ray(new Vector(1.5, 0, 1), new Point(1, 1, 0))),
+              "ERROR: there must be 0 points(null)");
+      assertTrue(square.hasIntersections(new Ray(new Vector(0.5, -0.5, 1), new Point(1, 1, 0)), 5),
+              "ERROR: the any-hit query must find the intersection");
+      assertFalse(square.hasIntersections(new Ray(new Vector(1.5, 0, 1), new Point(1, 1, 0)), 5),
+              "ERROR: the any-hit query must not find an intersection");
+      assertFalse(square.hasIntersections(new Ray(new Vector(0.5, -0.5, 1), new Point(1, 1, 0)), 1),
+              "ERROR: the any-hit query must keep the maximum distance");
+      //test 06: check case of a tilted quadrangle mostly facing the y axis
+      Polygon tilted = new Polygon(new Point(0, 0, 0), new Point(2, 1, 0), new Point(2, 1, 2), new Point(0, 0, 2));
+      assertEquals(List.of(new Point(1, 0.5, 1)),
+              tilted.findIntersections(new Ray(new Vector(0, 1, 0), new Point(1, -1, 1))),
+              "ERROR: wrong intersection point");
+      //test 07: check case of the tilted quadrangle missing the ray beside an edge (0 points)
+      assertNull(tilted.findIntersections(new Ray(new Vector(0, 1, 0), new Point(3, -1, 1))),
+              "ERROR: there must be 0 points(null)");
 
       // ============ Boundary Values Tests =====================
       //test 01: check case of intersecting a pentagon's edge(0 points)
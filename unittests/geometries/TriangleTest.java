@@ -94,5 +94,45 @@ class TriangleTest {
         //test 01: check case of ray intersecting the triangle edge (0 points)
         assertNull(triangle.findIntersections(new Ray(new Vector(-3,4,-3), p1), 1),
                 "ERROR: there must be 0 points(null)");
+        //test 02: check case of the intersection exactly at the distance (1 point)
+        Ray ray = new Ray(new Vector(-1,0,0), new Point(3,0,1));
+        assertEquals(List.of(new Point(0,0,1)), triangle.findIntersections(ray, 3),
+                "ERROR: the intersection at the distance must be found");
+        //test 03: check case of the intersection just beyond the distance (0 points)
+        assertNull(triangle.findIntersections(ray, 2.99),
+                "ERROR: there must be 0 points(null)");
+    }
+
+    /**
+     * Boundary cases of the intersections with the triangle - the ray's head and direction
+     * against the triangle's plane, and the edges and the vertices of the triangle.
+     * this test for: {@link geometries.Triangle#calculateIntersectionsHelper(Ray, double)}
+     */
+    @Test
+    void testIntersectionBoundaries() {
+        // ============ Boundary Values Tests =====================
+        //test 01: check case of a ray parallel to the triangle's plane (0 points)
+        assertNull(triangle.findIntersections(new Ray(new Vector(0,1,0), new Point(3,0,1))),
+                "ERROR: there must be 0 points(null)");
+        //test 02: check case of a ray in the triangle's plane (0 points)
+        assertNull(triangle.findIntersections(new Ray(new Vector(0,1,0), new Point(0,-5,1))),
+                "ERROR: there must be 0 points(null)");
+        //test 03: check case of a ray starting on the triangle (0 points)
+        assertNull(triangle.findIntersections(new Ray(new Vector(-1,0,0), new Point(0,0,1))),
+                "ERROR: there must be 0 points(null)");
+        assertNull(triangle.findIntersections(new Ray(new Vector(1,0,0), new Point(0,0,1))),
+                "ERROR: there must be 0 points(null)");
+        //test 04: check case of intersecting each of the triangle's edges (0 points)
+        for (Point onEdge : List.of(new Point(0,-1,1.5), new Point(0,1,1.5), new Point(0,1,0)))
+            assertNull(triangle.findIntersections(new Ray(onEdge.subtract(p1), p1)),
+                    "ERROR: there must be 0 points(null) on the edge " + onEdge);
+        //test 05: check case of intersecting each of the triangle's vertices (0 points)
+        for (Point vertex : List.of(new Point(0,-2,0), new Point(0,0,3), new Point(0,2,0)))
+            assertNull(triangle.findIntersections(new Ray(vertex.subtract(p1), p1)),
+                    "ERROR: there must be 0 points(null) on the vertex " + vertex);
+        //test 06: check case of intersecting just inside each of the triangle's edges (1 point)
+        for (Point nearEdge : List.of(new Point(0,-0.999,1.5), new Point(0,0.999,1.5), new Point(0,1,0.001)))
+            assertEquals(1, triangle.findIntersections(new Ray(nearEdge.subtract(p1), p1)).size(),
+                    "ERROR: there must be 1 point inside the edge near " + nearEdge);
     }
 }
\ No newline at end of file
@@ -279,5 +279,38 @@ class TubeTest {
 
     }
 
+    /**
+     * Test method for {@link geometries.Tube#calculateIntersectionsHelper(Ray, double)}
+     * with a tube whose axis is not aligned to the coordinate axes
+     */
+    @Test
+    void testFindIntersectionsTiltedAxis() {
+        Tube tilted = new Tube(1, new Ray(new Vector(1,1,0), Point.ZERO));
+        Ray ray = new Ray(new Vector(0,0,-1), new Point(0,0,5));
+
+        // ============ Equivalence Partitions Tests ==============
+        // Test 01: ray crosses the axis (2 points)
+        assertEquals(List.of(new Point(0,0,1), new Point(0,0,-1)), tilted.findIntersections(ray),
+                "ERROR: the intersection point is not correct");
+        // Test 02: ray passes beside the tube (0 points)
+        assertNull(tilted.findIntersections(new Ray(new Vector(0,0,-1), new Point(2,-2,5))),
+                "ERROR: the are supposed to be no intersection points");
 
-}
\ No newline at end of file
+        // =========== Boundary value tests =============================
+        // Test 01: ray is tangent to the tube (0 points)
+        assertNull(tilted.findIntersections(new Ray(new Vector(0,0,-1), new Point(Math.sqrt(0.5),-Math.sqrt(0.5),5))),
+                "ERROR: the are supposed to be no intersection points");
+        // Test 02: ray is parallel to the axis inside the tube (0 points)
+        assertNull(tilted.findIntersections(new Ray(new Vector(1,1,0), new Point(0,0,0.5))),
+                "ERROR: the are supposed to be no intersection points");
+        // Test 03: the distance ends exactly at the first point (1 point)
+        assertEquals(List.of(new Point(0,0,1)), tilted.findIntersections(ray, 4),
+                "ERROR: the intersection point is not correct");
+        // Test 04: the distance ends just before the first point (0 points)
+        assertNull(tilted.findIntersections(ray, 3.99),
+                "ERROR: the are supposed to be no intersection points");
+        // Test 05: the distance ends exactly at the second point (2 points)
+        assertEquals(List.of(new Point(0,0,1), new Point(0,0,-1)), tilted.findIntersections(ray, 6),
+                "ERROR: the intersection point is not correct");
+    }
+}
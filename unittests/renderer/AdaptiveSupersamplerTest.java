@@ -0,0 +1,48 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.Color;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the recursive adaptive supersampling of the pixels
+ */
+class AdaptiveSupersamplerTest {
+    /** Default constructor to satisfy JavaDoc generator */
+    AdaptiveSupersamplerTest() { /* to satisfy JavaDoc generator */ }
+
+    /** White color */
+    private static final Color WHITE = new Color(255, 255, 255);
+
+    /**
+     * Test method for {@link AdaptiveSupersampler#pixelColor(int, int)}.
+     */
+    @Test
+    void testPixelColor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a smooth block - the corners and the centers only, the corners are shared by the pixels
+        AdaptiveSupersampler flat = new AdaptiveSupersampler(3, 8, 10, 20, (x, y) -> WHITE);
+        for (int i = 20; i < 24; ++i)
+            for (int j = 10; j < 14; ++j)
+                assertEquals(WHITE.rgb, flat.pixelColor(j, i).rgb, "Wrong color of a smooth pixel");
+        assertEquals(5 * 5 + 4 * 4, flat.tracedRays(), "A smooth pixel must not be subdivided");
+
+        // TC02: a vertical edge through a third of a pixel - subdivided near the edge only
+        AdaptiveSupersampler edge = new AdaptiveSupersampler(4, 8, 0, 0,
+                (x, y) -> x < 1d / 3 ? WHITE : Color.BLACK);
+        assertEquals(255d / 3, edge.pixelColor(0, 0).rgb.d1(), 255d / 16, "Wrong coverage of the edge");
+        assertTrue(edge.tracedRays() < 33 * 33 / 4, "Must subdivide along the edge only");
+
+        // =========== Boundary Values Tests =====================
+        // TC11: no subdivision at depth 0 - the average of the corners and the center
+        AdaptiveSupersampler shallow = new AdaptiveSupersampler(0, 8, 0, 0,
+                (x, y) -> x == 0.5 && y == 0.5 ? WHITE : Color.BLACK);
+        assertEquals(51d, shallow.pixelColor(0, 0).rgb.d1(), 1e-10, "Wrong color without subdivision");
+        assertEquals(5, shallow.tracedRays(), "Wrong amount of rays without subdivision");
+        // TC12: a too deep subdivision
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdaptiveSupersampler(AdaptiveSupersampler.MAX_DEPTH + 1, 8, 0, 0, (x, y) -> WHITE),
+                "Too deep subdivision must be refused");
+    }
+}
@@ -45,6 +45,11 @@ public class AntiAliasingTests {
                 .build()
                 .renderImage()
                 .writeToImage("CircleWithoutAntiAliasing");
+        cameraBuilder.setSupersampling(3)
+                .build()
+                .renderImage()
+                .writeToImage("CircleWithSupersampling");
+        cameraBuilder.setSupersampling(-1);
     }
 
     /**
@@ -65,4 +65,46 @@ class BlackBoardTest {
         cameraBuilder.build().renderImage().printGrid(50, new Color(GREEN)) //
                 .writeToImage("RoundBlackBoardTest");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSetNumSamples() {
+        BlackBoard blackBoard = new BlackBoard(Point.ZERO, 100, Vector.AXIS_Y, Vector.AXIS_X).setSize(10);
+        // the default grid is 17x17
+        assertEquals(BlackBoard.DEFAULT_SAMPLES * BlackBoard.DEFAULT_SAMPLES, blackBoard.castRays().size(),
+                "Wrong default number of rays");
+        assertEquals(25, blackBoard.setNumSamples(5).castRays().size(), "Wrong number of rays");
+        assertEquals(1, blackBoard.setNumSamples(1).castRays().size(), "Wrong number of rays");
+        assertThrows(IllegalArgumentException.class, () -> blackBoard.setNumSamples(0),
+                "Number of samples must be positive");
+    }
+
+    @Test
+    void testAverage() {
+        BlackBoard blackBoard = new BlackBoard(Point.ZERO, 100, Vector.AXIS_Y, Vector.AXIS_X).setSize(10);
+        int[] count = { 0 };
+        // samples which agree - only the preliminary grid is cast in adaptive mode
+        assertEquals(new Double3(1, 2, 3), blackBoard.setAdaptive(true).average(ray -> {
+            ++count[0];
+            return new Double3(1, 2, 3);
+        }, 0.1), "Wrong average of agreeing samples");
+        assertEquals(BlackBoard.ADAPTIVE_SAMPLES * BlackBoard.ADAPTIVE_SAMPLES, count[0],
+                "Only the preliminary samples should be cast");
+
+        // samples which disagree (half of the blackboard) - the full grid is cast as well
+        count[0] = 0;
+        Double3 average = blackBoard.average(ray -> {
+            ++count[0];
+            return ray.getDirection().dotProduct(Vector.AXIS_Z) > 0 ? Double3.ONE : Double3.ZERO;
+        }, 0.1);
+        assertEquals(16 + 289, count[0], "The full grid should be cast as well");
+        assertEquals(0.5, average.d1(), 0.1, "Wrong average of disagreeing samples");
+
+        // without adaptive mode all the samples are cast
+        count[0] = 0;
+        blackBoard.setAdaptive(false).average(ray -> {
+            ++count[0];
+            return Double3.ONE;
+        }, 0.1);
+        assertEquals(289, count[0], "All the samples should be cast without adaptive mode");
+    }
+}
@@ -4,10 +4,23 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.api.Test;
 
+import geometries.Plane;
+import geometries.Polygon;
+import geometries.Sphere;
 import primitives.*;
 import renderer.Camera;
+import scene.Scene;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Testing Camera Class
@@ -89,5 +102,209 @@ class CameraTest {
         // =============== Boundary Values Tests ==================
         // BV01: set to a target on Y-axis without up
         assertThrows(IllegalArgumentException.class, () -> cameraBuilder.setDirection(new Point(0, 10, 0)).build());
+        // BV02: variance-driven sampling with a negative tolerance or without samples
+        assertThrows(IllegalArgumentException.class, () -> cameraBuilder.setVarianceSampling(-1, 16));
+        assertThrows(IllegalArgumentException.class, () -> cameraBuilder.setVarianceSampling(1, 0));
+        // BV03: the Russian roulette or the sample budget of a path tracer
+        cameraBuilder.setDirection(new Vector(0, 0, -1), Vector.AXIS_Y)
+                .setRayTracer(new Scene("Path test scene"), RayTracerType.PATH);
+        assertThrows(IllegalArgumentException.class, () -> cameraBuilder.setRussianRoulette(0.5).build(),
+                "Russian roulette must be refused for a path tracer");
+        assertThrows(IllegalArgumentException.class,
+                () -> cameraBuilder.setRussianRoulette(0).setSampleBudget(64).build(),
+                "A sample budget must be refused for a path tracer");
+        assertDoesNotThrow(() -> cameraBuilder.setSampleBudget(0).build(), "A path tracer must be built");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link renderer.Camera#constructRay(int, int, int, int)}
+     * with anti-aliasing and depth of field together.
+     */
+    @Test
+    void testConstructRayAntiAliasingDoF() {
+        cameraBuilder.setDirection(new Vector(0, 0, -1), Vector.AXIS_Y).setVpSize(8, 8);
+
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: depth of field alone - a blackboard of the aperture for the pixel ray
+        Camera dof = cameraBuilder.setApertureWindow(5).setDoFSamples(4).build();
+        assertEquals(16, dof.constructRay(4, 4, 1, 1).size(), "Wrong amount of depth of field rays");
+
+        // EP02: anti-aliasing with depth of field - a single lens sample for each pixel sample
+        Camera both = cameraBuilder.setAntiAliasing(true).setAntiAliasingSamples(5).build();
+        List<Ray> rays = both.constructRay(4, 4, 1, 1);
+        assertEquals(25, rays.size(), "Anti-aliasing with depth of field must cast one ray per pixel sample");
+        // the rays start at different points of the aperture window
+        assertEquals(25, rays.stream().map(Ray::getHead).distinct().count(), "Lens samples must differ");
+        cameraBuilder.setAntiAliasing(false);
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#renderImage()} by an executor.
+     */
+    @Test
+    void testRenderImageExecutor() {
+        Scene scene = new Scene("Executor test scene");
+        scene.geometries.add(new Sphere(5, new Point(0, 0, -50)));
+        cameraBuilder.setDirection(new Vector(0, 0, -1), Vector.AXIS_Y).setVpSize(10, 10)
+                .setRayTracer(scene, RayTracerType.SIMPLE).setResolution(50, 50);
+
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: every executor type renders the image
+        for (ExecutorType type : ExecutorType.values())
+            assertDoesNotThrow(() -> cameraBuilder.setExecutor(type).setMultithreading(3).build().renderImage(),
+                    "Rendering by " + type + " failed");
+
+        // EP02: a shared executor is not shut down by the camera
+        ExecutorService shared = Executors.newFixedThreadPool(2);
+        cameraBuilder.setExecutor(shared).build().renderImage();
+        assertFalse(shared.isShutdown(), "The camera must not shut down a shared executor");
+        shared.shutdown();
+        cameraBuilder.setExecutor((ExecutorService) null);
+
+        // EP03: an exception thrown by a rendering task is thrown by renderImage
+        Camera failing = Camera.getBuilder().setLocation(Point.ZERO).setVpDistance(10)
+                .setDirection(new Vector(0, 0, -1), Vector.AXIS_Y).setVpSize(10, 10).setResolution(50, 50)
+                .setExecutor(ExecutorType.FIXED_POOL).build(); // no ray tracer - no scene
+        assertThrows(NullPointerException.class, failing::renderImage, "The task's exception must be thrown");
+
+        // =============== Boundary Values Tests ==================
+        // BV01: the rendering misses its deadline - its tasks are held far beyond it
+        ExecutorService held = gatedExecutor(new CountDownLatch(1), new CountDownLatch(1), 1000);
+        Camera slow = cameraBuilder.setExecutor(held).setRenderTimeout(0.05).build();
+        assertThrows(IllegalStateException.class, slow::renderImage, "The deadline must be kept");
+        held.shutdown();
+
+        // BV02: the rendering is cancelled from another thread while its tasks are running
+        CountDownLatch started = new CountDownLatch(1), release = new CountDownLatch(1);
+        ExecutorService gated = gatedExecutor(started, release, 0);
+        Camera cancelled = cameraBuilder.setExecutor(gated).setRenderTimeout(0).build();
+        Thread canceller = new Thread(() -> {
+            try {
+                started.await();
+            } catch (InterruptedException ignored) {}
+            cancelled.cancelRendering();
+            release.countDown();
+        });
+        canceller.start();
+        assertThrows(CancellationException.class, cancelled::renderImage, "The rendering must be cancelled");
+        gated.shutdown();
+
+        // BV03: the deadline holds on a shared executor kept busy - the queued tasks never start
+        ExecutorService busy = Executors.newSingleThreadExecutor();
+        CountDownLatch blocking = new CountDownLatch(1), unblock = new CountDownLatch(1);
+        busy.submit(() -> {
+            blocking.countDown();
+            unblock.await();
+            return null;
+        });
+        Camera queued = cameraBuilder.setExecutor(busy).setRenderTimeout(0.05).build();
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            blocking.await();
+            assertThrows(IllegalStateException.class, queued::renderImage, "The deadline must be kept");
+        }, "A missed deadline must not wait for the queued tasks");
+        unblock.countDown();
+        busy.shutdown();
+        cameraBuilder.setExecutor((ExecutorService) null).setRenderTimeout(0);
+    }
+
+    /**
+     * Test method for {@link renderer.Camera.Builder#setVarianceSampling(double, int)} -
+     * the stopping rule of the variance-driven sampling of a pixel
+     */
+    @Test
+    void testVarianceSampling() {
+        // every sample of the single pixel is a primary ray hitting the background plane once
+        AtomicInteger samples = new AtomicInteger();
+        Scene scene = new Scene("Variance test scene");
+        scene.geometries.setBVH(false).setCBR(false);
+        scene.geometries.add(new Plane(new Point(0, 0, -100), Vector.AXIS_Z) {
+            @Override
+            public List<Intersection> calculateIntersectionsHelper(Ray ray, double maxDistance) {
+                samples.incrementAndGet();
+                return super.calculateIntersectionsHelper(ray, maxDistance);
+            }
+        }.setEmission(new Color(100, 100, 100)));
+        Camera.Builder builder = Camera.getBuilder().setLocation(Point.ZERO).setVpDistance(50)
+                .setDirection(new Vector(0, 0, -1), Vector.AXIS_Y).setVpSize(10, 10).setResolution(1, 1)
+                .setRayTracer(scene, RayTracerType.SIMPLE).setVarianceSampling(1, 100);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a constant color converges at the minimal amount of samples (two rounds)
+        builder.build().renderImage();
+        assertEquals(16, samples.get(), "A constant pixel must stop after two rounds of samples");
+
+        // TC02: a pixel split between a white and a dark half never converges - it stops at the cap
+        scene.geometries.add(new Polygon(new Point(-100, -100, -50), new Point(0, -100, -50),
+                new Point(0, 100, -50), new Point(-100, 100, -50)).setEmission(new Color(255, 255, 255)));
+        samples.set(0);
+        builder.build().renderImage();
+        assertEquals(100, samples.get(), "A noisy pixel must stop at the maximal amount of samples");
+
+        // =============== Boundary Values Tests ==================
+        // BV01: a cap below the minimal amount of samples (two rounds) holds
+        samples.set(0);
+        builder.setVarianceSampling(1, 5).build().renderImage();
+        assertEquals(5, samples.get(), "The cap must hold below the minimal amount of samples");
+    }
+
+    /**
+     * Test method for {@link renderer.Camera.Builder#setAdaptiveSampling(boolean)} -
+     * the adaptive anti-aliasing of a pixel
+     */
+    @Test
+    void testAdaptiveAntiAliasing() {
+        // every sample of the single pixel is a primary ray hitting the background plane once
+        AtomicInteger samples = new AtomicInteger();
+        Scene scene = new Scene("Adaptive anti-aliasing test scene");
+        scene.geometries.setBVH(false).setCBR(false);
+        scene.geometries.add(new Plane(new Point(0, 0, -100), Vector.AXIS_Z) {
+            @Override
+            public List<Intersection> calculateIntersectionsHelper(Ray ray, double maxDistance) {
+                samples.incrementAndGet();
+                return super.calculateIntersectionsHelper(ray, maxDistance);
+            }
+        }.setEmission(new Color(100, 100, 100)));
+        Camera.Builder builder = Camera.getBuilder().setLocation(Point.ZERO).setVpDistance(50)
+                .setDirection(new Vector(0, 0, -1), Vector.AXIS_Y).setVpSize(10, 10).setResolution(1, 1)
+                .setRayTracer(scene, RayTracerType.SIMPLE).setAntiAliasing(true).setAntiAliasingSamples(17);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a flat pixel is settled by the preliminary grid
+        builder.setAdaptiveSampling(true).build().renderImage();
+        assertEquals(16, samples.get(), "A flat pixel must be settled by the preliminary samples");
+
+        // TC02: without adaptive sampling the full grid is cast
+        samples.set(0);
+        builder.setAdaptiveSampling(false).build().renderImage();
+        assertEquals(289, samples.get(), "Without adaptive sampling all the samples must be cast");
+
+        // TC03: a pixel split between a white and a dark half casts the full grid after the preliminary one
+        scene.geometries.add(new Polygon(new Point(-100, -100, -50), new Point(0, -100, -50),
+                new Point(0, 100, -50), new Point(-100, 100, -50)).setEmission(new Color(255, 255, 255)));
+        samples.set(0);
+        builder.setAdaptiveSampling(true).build().renderImage();
+        assertTrue(samples.get() > 16, "A split pixel must cast the full grid of samples");
+    }
+
+    /**
+     * Creates an executor which holds each task before running it, until it is released
+     * @param started counted down when a task is about to run
+     * @param release the release of the tasks
+     * @param maxWait maximal holding time of a task in milliseconds, 0 for holding until the release
+     * @return the executor
+     */
+    private static ExecutorService gatedExecutor(CountDownLatch started, CountDownLatch release, long maxWait) {
+        return new ThreadPoolExecutor(2, 2, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            protected void beforeExecute(Thread thread, Runnable task) {
+                started.countDown();
+                try {
+                    if (maxWait == 0) release.await();
+                    else release.await(maxWait, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    thread.interrupt();
+                }
+            }
+        };
+    }
+}
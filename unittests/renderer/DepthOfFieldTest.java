@@ -60,6 +60,12 @@ public class DepthOfFieldTest {
                 .build()
                 .renderImage()
                 .writeToImage("DepthOfFieldTest");
+        // the same scene by variance-driven sampling of the pixels
+        cameraBuilder
+                .setVarianceSampling(2, 256)
+                .build()
+                .renderImage()
+                .writeToImage("DepthOfFieldVarianceTest");
     }
 
 
@@ -0,0 +1,98 @@
+package renderer;
+
+import geometries.*;
+import lighting.AmbientLight;
+import lighting.PointLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import static java.awt.Color.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the regular grid ray tracer
+ */
+class GridRayTracerTest {
+    /** Default constructor to satisfy JavaDoc generator */
+    GridRayTracerTest() { /* to satisfy JavaDoc generator */ }
+
+    /** Scene for the tests */
+    private final Scene scene = new Scene("Grid test scene")
+            .setAmbientLight(new AmbientLight(new Color(30, 30, 30)));
+
+    /**
+     * Fill the scene with many small spheres and triangles, a few bigger bodies
+     * that span many cells, and unbounded geometries (plane and tube)
+     */
+    private void fillScene() {
+        Material material = new Material().setKd(0.5).setKs(0.5).setShininess(30);
+        for (int i = -5; i <= 5; ++i)
+            for (int j = -5; j <= 5; ++j) {
+                scene.geometries.add(new Sphere(4, new Point(i * 15, j * 15, -100))
+                        .setEmission(new Color(BLUE)).setMaterial(material));
+                scene.geometries.add(new Triangle(new Point(i * 15 + 5.3, j * 15 + 0.7, -60),
+                        new Point(i * 15 + 9.3, j * 15 + 0.7, -60), new Point(i * 15 + 7.3, j * 15 + 4.7, -62))
+                        .setEmission(new Color(RED)).setMaterial(material));
+            }
+        scene.geometries.add(
+                new Sphere(30, new Point(40, -20, -150)).setEmission(new Color(GREEN))
+                        .setMaterial(new Material().setKd(0.3).setKs(0.3).setkr(0.4)),
+                new Cylinder(6, new Ray(new Vector(1, 1, 0), new Point(-60, -60, -80)), 100)
+                        .setEmission(new Color(YELLOW)).setMaterial(material),
+                new Polygon(new Point(-70, 70, -90), new Point(-40, 70, -90), new Point(-40, 40, -90),
+                        new Point(-70, 40, -90))
+                        .setEmission(new Color(ORANGE)).setMaterial(new Material().setkt(0.5)),
+                new Plane(new Point(0, 0, -200), new Vector(0, 0, 1))
+                        .setEmission(new Color(GRAY)).setMaterial(material),
+                new Tube(3, new Ray(new Vector(0, 1, 0), new Point(70, 0, -70)))
+                        .setEmission(new Color(PINK)).setMaterial(material));
+        scene.lights.add(new PointLight(new Color(500, 500, 500), new Point(50, 50, 50)).setkL(1E-4));
+    }
+
+    /**
+     * Test method for {@link GridRayTracer#traceRay(Ray)}.
+     * The grid ray tracer must return exactly the same colors as the simple ray tracer.
+     */
+    @Test
+    void testTraceRay() {
+        fillScene();
+        RayTracerBase simple = new SimpleRayTracer(scene);
+        RayTracerBase grid = new GridRayTracer(scene);
+        Point head = new Point(0, 0, 100);
+        for (int x = -90; x <= 90; x += 3)
+            for (int y = -90; y <= 90; y += 3) {
+                Ray ray = new Ray(new Vector(x, y, -200), head);
+                assertEquals(simple.traceRay(ray).rgb, grid.traceRay(ray).rgb,
+                        "Grid ray tracer color differs from simple ray tracer for " + ray);
+            }
+
+        // a ray starting inside the grid
+        Ray inside = new Ray(new Vector(1, 2, -3), new Point(1, 1, -80));
+        assertEquals(simple.traceRay(inside).rgb, grid.traceRay(inside).rgb,
+                "Grid ray tracer color differs for a ray starting inside the grid");
+
+        // geometries added after the first render must be taken into account
+        scene.geometries.add(new Sphere(5, new Point(0, 0, -20)).setEmission(new Color(WHITE)));
+        Ray ray = new Ray(new Vector(0, 0, -1), head);
+        assertEquals(simple.traceRay(ray).rgb, grid.traceRay(ray).rgb,
+                "Grid ray tracer must be rebuilt when geometries are added");
+    }
+
+    /**
+     * Produce a scene with many spheres and triangles rendered with the grid ray tracer
+     */
+    @Test
+    void renderGrid() {
+        fillScene();
+        Camera.getBuilder()
+                .setRayTracer(scene, RayTracerType.GRID)
+                .setLocation(new Point(0, 0, 100)).setDirection(new Point(0, 0, -100), Vector.AXIS_Y)
+                .setVpDistance(100).setVpSize(100, 100)
+                .setResolution(500, 500)
+                .setMultithreading(-2)
+                .build()
+                .renderImage()
+                .writeToImage("gridRayTracerTest");
+    }
+}
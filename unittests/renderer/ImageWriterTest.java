@@ -47,5 +47,32 @@ public class ImageWriterTest {
 
     }
 
+    /**
+     * Test method for {@link renderer.ImageWriter#writePixel(int, int, Color)},
+     * {@link renderer.ImageWriter#writeRow(int, int[])} and
+     * {@link renderer.ImageWriter#writeTile(int, int, int, int, int[])}.
+     */
+    @Test
+    void testWritePixels() {
+        ImageWriter imageWriter = new ImageWriter(4, 3);
 
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a color within range
+        imageWriter.writePixel(1, 2, new Color(10, 20, 30));
+        assertEquals(0x0A141E, imageWriter.readPixel(1, 2), "Wrong pixel color");
+        // TC02: a whole row
+        imageWriter.writeRow(0, new int[] { 1, 2, 3, 4 });
+        assertEquals(3, imageWriter.readPixel(2, 0), "Wrong row pixel color");
+        // TC03: a tile
+        imageWriter.writeTile(2, 1, 2, 2, new int[] { 5, 6, 7, 8 });
+        assertEquals(6, imageWriter.readPixel(3, 1), "Wrong tile pixel color");
+        assertEquals(7, imageWriter.readPixel(2, 2), "Wrong tile pixel color");
+        assertEquals(0x0A141E, imageWriter.readPixel(1, 2), "A tile must not overwrite pixels outside it");
+
+        // =========== Boundary Values Tests =====================
+        // TC11: components above 255 are clamped the same as by java.awt.Color conversion
+        Color bright = new Color(300, 255, 0.5);
+        imageWriter.writePixel(0, 0, bright);
+        assertEquals(bright.getColor().getRGB() & 0xFFFFFF, imageWriter.readPixel(0, 0), "Wrong clamping");
+    }
 }
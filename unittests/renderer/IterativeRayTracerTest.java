@@ -0,0 +1,46 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the iterative ray tracer
+ */
+class IterativeRayTracerTest {
+    /** Default constructor to satisfy JavaDoc generator */
+    IterativeRayTracerTest() { /* to satisfy JavaDoc generator */ }
+
+    /**
+     * Test method for {@link IterativeRayTracer#traceRay(Ray)}.
+     * The iterative ray tracer must return the colors of the simple ray tracer.
+     */
+    @Test
+    void testTraceRay() {
+        Material sphereMaterial = TracerScenes.glassMaterial();
+        Scene scene = TracerScenes.sphereBetweenMirrors("Iterative test scene", sphereMaterial);
+        RayTracerBase simple = new SimpleRayTracer(scene);
+        RayTracerBase iterative = new IterativeRayTracer(scene);
+        Ray[] rays = { new Ray(new Vector(0.05, 0.1, -1), Point.ZERO), new Ray(new Vector(0.8, -0.1, -1), Point.ZERO),
+                new Ray(new Vector(0, 1, 1), Point.ZERO) };
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: mirrors and a transparent sphere - the same ray tree
+        for (Ray ray : rays)
+            assertEquals(simple.traceRay(ray).rgb, iterative.traceRay(ray).rgb, "Wrong color of " + ray);
+
+        // TC02: glossy and diffuse surfaces within a budget - the same colors up to the sampling noise
+        sphereMaterial.setGlossure(5).setDiffusion(5).setGlossureSamples(5).setDiffusionSamples(5);
+        ((SimpleRayTracer) simple).setSampleBudget(1000);
+        ((SimpleRayTracer) iterative).setSampleBudget(1000);
+        for (Ray ray : rays) {
+            Color expected = simple.traceRay(ray);
+            Color actual = iterative.traceRay(ray);
+            assertEquals(expected.rgb.d1(), actual.rgb.d1(), 1 + expected.rgb.d1() * 0.05, "Wrong red color of " + ray);
+            assertEquals(expected.rgb.d2(), actual.rgb.d2(), 1 + expected.rgb.d2() * 0.05, "Wrong green color of " + ray);
+            assertEquals(expected.rgb.d3(), actual.rgb.d3(), 1 + expected.rgb.d3() * 0.05, "Wrong blue color of " + ray);
+        }
+    }
+}
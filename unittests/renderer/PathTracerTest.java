@@ -0,0 +1,46 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the path tracer
+ */
+class PathTracerTest {
+    /** Default constructor to satisfy JavaDoc generator */
+    PathTracerTest() { /* to satisfy JavaDoc generator */ }
+
+    /**
+     * Test method for {@link PathTracer#traceRay(Ray)}.
+     * The average color of many paths must be the color of the simple ray tracer.
+     */
+    @Test
+    void testTraceRay() {
+        Scene scene = TracerScenes.sphereBetweenMirrors("Path test scene", TracerScenes.glassMaterial());
+        RayTracerBase simple = new SimpleRayTracer(scene);
+        RayTracerBase path = new PathTracer(scene);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a ray hitting the transparent and reflective sphere
+        // TC02: a ray hitting a reflective plane
+        for (Ray ray : new Ray[] { new Ray(new Vector(0.05, 0.1, -1), Point.ZERO),
+                new Ray(new Vector(0.8, -0.1, -1), Point.ZERO) }) {
+            Color exact = simple.traceRay(ray);
+            Double3 sum = Double3.ZERO;
+            final int count = 20000;
+            for (int n = 0; n < count; ++n) sum = sum.add(path.traceRay(ray).rgb);
+            Double3 average = sum.reduce(count);
+            assertEquals(exact.rgb.d1(), average.d1(), exact.rgb.d1() * 0.02, "Wrong red color of " + ray);
+            assertEquals(exact.rgb.d2(), average.d2(), exact.rgb.d2() * 0.02, "Wrong green color of " + ray);
+            assertEquals(exact.rgb.d3(), average.d3(), exact.rgb.d3() * 0.02, "Wrong blue color of " + ray);
+        }
+
+        // =========== Boundary Values Tests =====================
+        // TC11: a ray missing all the geometries - the background
+        Ray miss = new Ray(new Vector(0, 1, 1), Point.ZERO);
+        assertEquals(scene.background.rgb, path.traceRay(miss).rgb, "A missing ray must return the background");
+    }
+}
@@ -0,0 +1,56 @@
+package renderer;
+
+import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts how many times each pixel of a fake image is rendered by several threads -
+ * a helper of the tests of the schedulers of the rendering threads
+ */
+final class PixelCounts {
+    /** Amount of pixel columns */
+    private final int                cols;
+    /** The rendering counts of the pixels, row by row */
+    private final AtomicIntegerArray counts;
+
+    /**
+     * Creates the counts of an image
+     * @param rows amount of pixel rows
+     * @param cols amount of pixel columns
+     */
+    PixelCounts(int rows, int cols) {
+        this.cols = cols;
+        counts    = new AtomicIntegerArray(rows * cols);
+    }
+
+    /**
+     * Counts a rendering of a pixel (may be called by any thread)
+     * @param col pixel column number
+     * @param row pixel row number
+     */
+    void render(int col, int row) {
+        counts.incrementAndGet(row * cols + col);
+    }
+
+    /**
+     * Runs rendering threads and waits for all of them to finish
+     * @param threads amount of threads
+     * @param body    the body of each thread by its index
+     */
+    static void runThreads(int threads, IntFunction<Runnable> body) {
+        var workers = new LinkedList<Thread>();
+        for (int t = 0; t < threads; ++t) workers.add(new Thread(body.apply(t)));
+        for (Thread thread : workers) thread.start();
+        for (Thread thread : workers)
+            assertDoesNotThrow(() -> thread.join());
+    }
+
+    /** Asserts that each pixel has been rendered exactly once */
+    void assertEachOnce() {
+        for (int p = 0; p < counts.length(); ++p)
+            assertEquals(1, counts.get(p), "Pixel " + p + " must be rendered exactly once");
+    }
+}
@@ -0,0 +1,72 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the pixel manager of the rendering threads
+ */
+class PixelManagerTest {
+    /** Default constructor to satisfy JavaDoc generator */
+    PixelManagerTest() { /* to satisfy JavaDoc generator */ }
+
+    /**
+     * Take all the pixels by several threads and count how many times each pixel is allocated
+     * @param rows     amount of pixel rows
+     * @param cols     amount of pixel columns
+     * @param lockFree the pixel manager mode
+     */
+    private void assertEachPixelOnce(int rows, int cols, boolean lockFree) {
+        PixelManager pixelManager = new PixelManager(rows, cols, lockFree, 0);
+        PixelCounts counts = new PixelCounts(rows, cols);
+        PixelCounts.runThreads(4, t -> () -> {
+            PixelManager.Pixel pixel;
+            while ((pixel = pixelManager.nextPixel()) != null) {
+                counts.render(pixel.col(), pixel.row());
+                pixelManager.pixelDone();
+            }
+        });
+        pixelManager.finish();
+        counts.assertEachOnce();
+    }
+
+    /**
+     * Test method for {@link PixelManager#nextPixel()}.
+     */
+    @Test
+    void testNextPixel() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: synchronized mode, more columns than rows
+        assertEachPixelOnce(30, 70, false);
+        // TC02: lock-free mode, more rows than columns
+        assertEachPixelOnce(70, 30, true);
+
+        // =========== Boundary Values Tests =====================
+        // TC11: a single row in lock-free mode
+        assertEachPixelOnce(1, 100, true);
+    }
+
+    /**
+     * Test method for {@link PixelManager#nextPixel()} - the pixels are allocated row by row,
+     * as (column, row) pairs, in both modes
+     */
+    @Test
+    void testNextPixelOrder() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: synchronized mode, a non-square image
+        // TC02: lock-free mode, a non-square image
+        // =========== Boundary Values Tests =====================
+        // TC11: no more pixels after the last one (in both modes)
+        for (boolean lockFree : new boolean[] { false, true }) {
+            String mode = lockFree ? "lock-free" : "synchronized";
+            PixelManager pixelManager = new PixelManager(2, 3, lockFree, 0);
+            for (int row = 0; row < 2; ++row)
+                for (int col = 0; col < 3; ++col)
+                    assertEquals(new PixelManager.Pixel(col, row), pixelManager.nextPixel(),
+                            "Wrong pixel order in " + mode + " mode");
+            assertNull(pixelManager.nextPixel(), "No pixel must follow the last one in " + mode + " mode");
+            pixelManager.finish();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the precomputed sample tables of the blackboards
+ */
+class SampleTableTest {
+    /** Default constructor to satisfy JavaDoc generator */
+    SampleTableTest() { /* to satisfy JavaDoc generator */ }
+
+    /**
+     * Test method for {@link SampleTable#of(SamplerType, int, int)}.
+     */
+    @Test
+    void testOf() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: one sample in each cell of the grid, and each of them mapped onto the disk
+        SampleTable table = SampleTable.of(SamplerType.JITTERED, 5, 3);
+        assertEquals(25, table.squareX.length, "Wrong amount of samples");
+        for (int i = 0; i < 5; ++i)
+            for (int j = 0; j < 5; ++j) {
+                int k = i * 5 + j;
+                assertEquals(j, cell(table.squareX[k], 5), "Sample out of its cell column");
+                assertEquals(4 - i, cell(table.squareY[k], 5), "Sample out of its cell row");
+            }
+        assertEquals(25, table.diskX.length, "Every sample must be mapped onto the disk");
+        for (int k = 0; k < 25; ++k) {
+            double r2 = table.diskX[k] * table.diskX[k] + table.diskY[k] * table.diskY[k];
+            assertTrue(r2 <= 0.25, "Disk sample out of the disk");
+            // the concentric mapping keeps the samples of the outer ring of cells on the outer ring of the disk
+            double ring = Math.max(Math.abs(table.squareX[k]), Math.abs(table.squareY[k]));
+            assertEquals(ring, Math.sqrt(r2), 1e-12, "The mapping must keep the distance from the center");
+        }
+
+        // TC02: the tables are shared, and the variants differ
+        assertSame(table, SampleTable.of(SamplerType.JITTERED, 5, 3), "The tables must be built once");
+        assertNotEquals(table.squareX[0], SampleTable.of(SamplerType.JITTERED, 5, 4).squareX[0],
+                "The variants must differ");
+
+        // =========== Boundary Values Tests =====================
+        // TC11: a single sample
+        assertEquals(1, SampleTable.of(SamplerType.JITTERED, 1, 0).squareX.length, "Wrong amount of samples");
+        // TC12: the variant of a scrambling key is in range and stable
+        for (long key = 0; key < 1000; ++key) {
+            int variant = SampleTable.variant(key);
+            assertTrue(variant >= 0 && variant < SampleTable.VARIANTS, "Variant out of range");
+            assertEquals(variant, SampleTable.variant(key), "The variant of a key must be stable");
+        }
+    }
+
+    /**
+     * Test method for {@link SampleTable#of(SamplerType, int, int)} with the low-discrepancy
+     * and blue-noise samplers - the samples must cover the unit square evenly.
+     */
+    @Test
+    void testSamplers() {
+        for (SamplerType sampler : SamplerType.values()) {
+            SampleTable table = SampleTable.of(sampler, 8, 1);
+            assertEquals(64, table.squareX.length, "Wrong amount of samples of " + sampler);
+            // each of the 4x4 cells of the square must hold 4 samples, give or take (stratification)
+            int[] cells = new int[16];
+            for (int k = 0; k < 64; ++k) {
+                assertTrue(Math.abs(table.squareX[k]) <= 0.5 && Math.abs(table.squareY[k]) <= 0.5,
+                        "Sample of " + sampler + " out of the unit square");
+                ++cells[cell(table.squareX[k], 4) * 4 + cell(table.squareY[k], 4)];
+            }
+            for (int cell : cells)
+                assertTrue(cell >= 1 && cell <= 8, "Samples of " + sampler + " are not evenly spread");
+        }
+    }
+
+    /**
+     * Finds the cell of the grid over the unit square holding a coordinate of a sample
+     *
+     * @param coordinate the coordinate, in [-0.5, 0.5]
+     * @param cells      the number of cells along the axis
+     * @return the index of the cell holding the coordinate
+     */
+    private static int cell(double coordinate, int cells) {
+        int cell = 0;
+        while (cell < cells - 1 && coordinate + 0.5 >= (cell + 1.0) / cells) ++cell;
+        return cell;
+    }
+}
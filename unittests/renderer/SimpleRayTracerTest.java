@@ -0,0 +1,127 @@
+package renderer;
+
+import geometries.Intersectable;
+import geometries.Plane;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the simple ray tracer
+ */
+class SimpleRayTracerTest {
+    /** Default constructor to satisfy JavaDoc generator */
+    SimpleRayTracerTest() { /* to satisfy JavaDoc generator */ }
+
+    /**
+     * Test method for {@link SimpleRayTracer#setRussianRoulette(double)}.
+     * The average color with the Russian roulette must be the color without it (unbiased termination).
+     */
+    @Test
+    void testSetRussianRoulette() {
+        // two parallel mirrors - the ray bounces between them up to the maximal level
+        Scene scene = new Scene("Mirrors scene");
+        scene.geometries.add(
+                new Plane(new Point(0, 0, -100), new Vector(0, 0, 1)).setEmission(new Color(100, 0, 0))
+                        .setMaterial(new Material().setkr(0.7)),
+                new Plane(new Point(0, 0, 100), new Vector(0, 0, -1)).setEmission(new Color(0, 100, 0))
+                        .setMaterial(new Material().setkr(0.7)));
+        Ray ray = new Ray(new Vector(1, 1, -3), Point.ZERO);
+        Color exact = new SimpleRayTracer(scene).traceRay(ray);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the average of many randomly terminated paths is the exact color
+        SimpleRayTracer roulette = new SimpleRayTracer(scene).setRussianRoulette(0.5);
+        Double3 sum = Double3.ZERO;
+        final int count = 20000;
+        for (int n = 0; n < count; ++n) sum = sum.add(roulette.traceRay(ray).rgb);
+        Double3 average = sum.reduce(count);
+        assertEquals(exact.rgb.d1(), average.d1(), exact.rgb.d1() * 0.02, "Russian roulette biases the red color");
+        assertEquals(exact.rgb.d2(), average.d2(), exact.rgb.d2() * 0.02, "Russian roulette biases the green color");
+
+        // =========== Boundary Values Tests =====================
+        // TC11: no Russian roulette with a zero threshold - the exact color
+        assertEquals(exact.rgb, new SimpleRayTracer(scene).setRussianRoulette(0).traceRay(ray).rgb,
+                "Zero threshold must not terminate any ray");
+        // TC12: a threshold out of range
+        assertThrows(IllegalArgumentException.class, () -> new SimpleRayTracer(scene).setRussianRoulette(1.5),
+                "Threshold above 1 must be refused");
+    }
+
+    /**
+     * Test method for {@link SimpleRayTracer#setSampleBudget(int)}.
+     * Two facing glossy mirrors - the budget must be split between the levels of recursion as documented.
+     */
+    @Test
+    void testSetSampleBudget() {
+        Scene scene = new Scene("Glossy mirrors scene");
+        scene.geometries.add(
+                new Plane(new Point(0, 0, -100), new Vector(0, 0, 1)).setEmission(new Color(100, 0, 0))
+                        .setMaterial(new Material().setkr(1).setGlossure(20)),
+                new Plane(new Point(0, 0, 100), new Vector(0, 0, -1)).setEmission(new Color(0, 100, 0))
+                        .setMaterial(new Material().setkr(1).setGlossure(20)));
+        Ray ray = new Ray(new Vector(1, 1, -3), Point.ZERO);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: 64 rays by the first surface, 4 rays by each of the next ones, and a single ray below them
+        assertEquals(List.of(64, 256, 256, 256, 256, 256, 256, 256, 256), raysPerLevel(scene, 4096, ray),
+                "Wrong amount of rays at the levels of recursion");
+        // TC02: a smaller budget - fewer rays
+        assertTrue(countRays(scene, 64, ray) < countRays(scene, 4096, ray), "Smaller budget must cast fewer rays");
+
+        // =========== Boundary Values Tests =====================
+        // TC11: a budget of a single ray - a single path
+        assertEquals(10, countRays(scene, 1, ray), "A budget of one ray must trace a single path");
+        // TC12: a negative budget
+        assertThrows(IllegalArgumentException.class, () -> new SimpleRayTracer(scene).setSampleBudget(-1),
+                "Negative budget must be refused");
+    }
+
+    /**
+     * Counts the secondary rays cast at each level of recursion for a primary ray by a ray tracer with a budget
+     * of secondary rays - the blackboards of a level share the same budget (in a scene of uniform attenuation),
+     * and the budget shrinks from a level to the next one
+     * @param scene  the scene
+     * @param budget the budget
+     * @param ray    the primary ray
+     * @return the amount of rays cast at each level, from the first secondary level on
+     */
+    private static List<Integer> raysPerLevel(Scene scene, int budget, Ray ray) {
+        TreeMap<Double, Integer> levels = new TreeMap<>(Comparator.reverseOrder());
+        new SimpleRayTracer(scene) {
+            @Override
+            protected int budgetSamples(int numSamples, Double3 kkx, double budget) {
+                int samples = super.budgetSamples(numSamples, kkx, budget);
+                levels.merge(budget, samples * samples, Integer::sum);
+                return samples;
+            }
+        }.setSampleBudget(budget).traceRay(ray);
+        return new ArrayList<>(levels.values());
+    }
+
+    /**
+     * Counts the rays traced for a primary ray by a ray tracer with a budget of secondary rays
+     * @param scene  the scene
+     * @param budget the budget
+     * @param ray    the primary ray
+     * @return the amount of rays traced
+     */
+    private static int countRays(Scene scene, int budget, Ray ray) {
+        int[] count = { 0 };
+        new SimpleRayTracer(scene) {
+            @Override
+            protected Intersectable.Intersection findClosestIntersection(Ray r) {
+                ++count[0];
+                return super.findClosestIntersection(r);
+            }
+        }.setSampleBudget(budget).traceRay(ray);
+        return count[0];
+    }
+}
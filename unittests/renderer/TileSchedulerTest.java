@@ -0,0 +1,77 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the tile scheduler of the rendering threads
+ */
+class TileSchedulerTest {
+    /** Default constructor to satisfy JavaDoc generator */
+    TileSchedulerTest() { /* to satisfy JavaDoc generator */ }
+
+    /**
+     * Render a fake image by several threads and count how many times each pixel is rendered.
+     * The first thread may be held after its first tile until all the other threads run out of tiles,
+     * so the others must steal the rest of its tiles.
+     * @param rows      amount of pixel rows
+     * @param cols      amount of pixel columns
+     * @param tileSize  tile size
+     * @param threads   amount of threads
+     * @param holdFirst true for holding the first thread after its first tile
+     * @return the amount of pixels rendered by each thread
+     */
+    private long[] render(int rows, int cols, int tileSize, int threads, boolean holdFirst) {
+        TileScheduler scheduler = new TileScheduler(rows, cols, tileSize, threads, 0);
+        PixelCounts counts = new PixelCounts(rows, cols);
+        long[] rendered = new long[threads]; // each thread writes its own slot, read after the threads are joined
+        CountDownLatch othersDone = new CountDownLatch(threads - 1);
+        PixelCounts.runThreads(threads, t -> () -> {
+            TileScheduler.Worker worker = scheduler.worker(t);
+            TileScheduler.Tile tile;
+            while ((tile = worker.nextTile()) != null) {
+                for (int i = tile.row0(); i < tile.row1(); ++i)
+                    for (int j = tile.col0(); j < tile.col1(); ++j)
+                        counts.render(j, i);
+                rendered[t] += tile.pixels();
+                worker.tileDone(tile);
+                if (holdFirst && t == 0) {
+                    try {
+                        othersDone.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+            if (t != 0) othersDone.countDown();
+        });
+
+        counts.assertEachOnce();
+        assertEquals((long) rows * cols, scheduler.pixelsDone(), "Wrong progress count");
+        return rendered;
+    }
+
+    /**
+     * Test method for {@link TileScheduler.Worker#nextTile()}.
+     */
+    @Test
+    void testNextTile() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the image size is not a multiple of the tile size
+        render(101, 67, 16, 4, false);
+        // TC02: a slow thread - the others steal all its tiles but the first one (of 9 dealt to it)
+        assertTrue(render(101, 67, 16, 4, true)[0] <= 16 * 16, "The tiles of a slow thread must be stolen");
+
+        // =========== Boundary Values Tests =====================
+        // TC11: a single thread
+        assertEquals(50 * 50, render(50, 50, 16, 1, false)[0], "A single thread must render all the tiles");
+        // TC12: more threads than tiles
+        render(20, 20, 16, 8, false);
+        // TC13: tiles of one pixel, with a slow thread
+        assertTrue(render(10, 30, 1, 3, true)[0] <= 1, "The tiles of a slow thread must be stolen");
+    }
+}
@@ -0,0 +1,43 @@
+package renderer;
+
+import geometries.Plane;
+import geometries.Sphere;
+import lighting.AmbientLight;
+import lighting.PointLight;
+import primitives.*;
+import scene.Scene;
+
+/**
+ * Scenes shared by the tests of the ray tracers which must reproduce the colors of the simple ray tracer
+ */
+final class TracerScenes {
+    /** No instances - a holder of scene factories */
+    private TracerScenes() {}
+
+    /**
+     * Creates the material of a glass sphere - transparent and reflective, with diffuse and specular effects
+     * @return a new material (it may be changed by the test)
+     */
+    static Material glassMaterial() {
+        return new Material().setKd(0.3).setKs(0.3).setShininess(30).setkt(0.4).setkr(0.3);
+    }
+
+    /**
+     * Creates a scene of a sphere between two reflective planes (behind it and below it), lit by a point light -
+     * so the rays hitting the sphere spawn a deep tree of reflected and refracted rays
+     * @param name           the name of the scene
+     * @param sphereMaterial the material of the sphere
+     * @return the scene
+     */
+    static Scene sphereBetweenMirrors(String name, Material sphereMaterial) {
+        Scene scene = new Scene(name).setAmbientLight(new AmbientLight(new Color(20, 20, 20)));
+        scene.geometries.add(
+                new Sphere(30, new Point(0, 0, -100)).setEmission(new Color(20, 20, 80)).setMaterial(sphereMaterial),
+                new Plane(new Point(0, 0, -200), new Vector(0, 0, 1)).setEmission(new Color(60, 20, 20))
+                        .setMaterial(new Material().setKd(0.5).setkr(0.5)),
+                new Plane(new Point(0, -40, 0), new Vector(0, 1, 0)).setEmission(new Color(20, 60, 20))
+                        .setMaterial(new Material().setKd(0.5).setkr(0.4)));
+        scene.lights.add(new PointLight(new Color(400, 400, 400), new Point(50, 50, 0)).setkL(1E-4));
+        return scene;
+    }
+}
@@ -0,0 +1,102 @@
+package renderer;
+
+import geometries.Plane;
+import geometries.Sphere;
+import lighting.AmbientLight;
+import lighting.PointLight;
+import lighting.SpotLight;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the wavefront ray tracer
+ */
+class WavefrontRayTracerTest {
+    /** Default constructor to satisfy JavaDoc generator */
+    WavefrontRayTracerTest() { /* to satisfy JavaDoc generator */ }
+
+    /** Scene for the tests */
+    private final Scene scene = new Scene("Wavefront test scene")
+            .setAmbientLight(new AmbientLight(new Color(20, 20, 20)));
+
+    /**
+     * Test method for {@link WavefrontRayTracer#traceRays(List)}.
+     * The wavefront ray tracer must return the colors of the simple ray tracer.
+     */
+    @Test
+    void testTraceRays() {
+        // a grid of spheres whose materials interleave from a sphere to the next one, so the hits of neighbouring
+        // rays are reordered by the material sort - in front of a reflective plane and above a reflective floor
+        Material[] materials = {
+                new Material().setKd(0.3).setKs(0.3).setShininess(30).setkt(0.4).setkr(0.3),
+                new Material().setKd(0.5).setKs(0.5).setShininess(60).setkt(0.6),
+                new Material().setKd(0.2).setKs(0.6).setShininess(100).setkr(0.5),
+                new Material().setKd(0.8).setKs(0.1).setShininess(5) };
+        for (int ix = -2; ix <= 2; ++ix)
+            for (int iy = -2; iy <= 2; ++iy)
+                scene.geometries.add(new Sphere(8, new Point(ix * 20, iy * 20, -100))
+                        .setEmission(new Color(20 + 10 * (ix + 2), 20 + 10 * (iy + 2), 60))
+                        .setMaterial(materials[Math.floorMod(3 * ix + iy, materials.length)]));
+        scene.geometries.add(
+                new Plane(new Point(0, 0, -200), new Vector(0, 0, 1)).setEmission(new Color(60, 20, 20))
+                        .setMaterial(new Material().setKd(0.5).setkr(0.5)),
+                new Plane(new Point(0, -60, 0), new Vector(0, 1, 0)).setEmission(new Color(20, 60, 20))
+                        .setMaterial(new Material().setKd(0.5).setkr(0.4)));
+        scene.lights.add(new PointLight(new Color(400, 400, 400), new Point(50, 50, 0)).setkL(1E-4));
+        scene.lights.add(new SpotLight(new Color(300, 200, 100), new Point(-50, 40, 0), new Vector(1, -1, -2))
+                .setkL(1E-4));
+        RayTracerBase simple = new SimpleRayTracer(scene);
+        WavefrontRayTracer wavefront = new WavefrontRayTracer(scene);
+        List<Ray> rays = new ArrayList<>();
+        for (int x = -60; x <= 60; x += 6)
+            for (int y = -60; y <= 60; y += 6)
+                rays.add(new Ray(new Vector(x, y, -100), Point.ZERO));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a batch of rays hitting many materials - the colors of the simple ray tracer, in the order of the rays
+        Color[] colors = wavefront.traceRays(rays);
+        assertEquals(rays.size(), colors.length, "Wrong amount of colors");
+        for (int i = 0; i < colors.length; ++i)
+            assertEquals(simple.traceRay(rays.get(i)).rgb, colors[i].rgb, "Wrong color of " + rays.get(i));
+
+        // =========== Boundary Values Tests =====================
+        // TC11: a single ray
+        Ray ray = rays.get(rays.size() / 2);
+        assertEquals(simple.traceRay(ray).rgb, wavefront.traceRay(ray).rgb, "Wrong color of a single ray");
+        // TC12: an empty batch
+        assertEquals(0, wavefront.traceRays(List.of()).length, "An empty batch must have no colors");
+        // TC13: a batch beyond the size of a wave - traced in chunks, in the order of the rays
+        List<Ray> many = new ArrayList<>();
+        for (int i = 0; i < WavefrontRayTracer.MAX_WAVE + 5; ++i) many.add(rays.get(i % rays.size()));
+        colors = wavefront.traceRays(many);
+        for (int i = 0; i < colors.length; ++i)
+            assertEquals(simple.traceRay(many.get(i)).rgb, colors[i].rgb, "Wrong color of a chunked ray");
+    }
+
+    /**
+     * Test method for {@link Camera#renderImage()} with the wavefront ray tracer
+     * (tile by tile with threads, and row by row without).
+     */
+    @Test
+    void testRenderImage() {
+        scene.geometries.add(new Sphere(30, new Point(0, 0, -100)).setEmission(new Color(20, 20, 80))
+                .setMaterial(new Material().setKd(0.3).setKs(0.3).setShininess(30).setkr(0.3)));
+        scene.lights.add(new PointLight(new Color(400, 400, 400), new Point(50, 50, 0)).setkL(1E-4));
+        Camera.Builder builder = Camera.getBuilder().setLocation(Point.ZERO).setVpDistance(100)
+                .setDirection(new Vector(0, 0, -1), Vector.AXIS_Y).setVpSize(100, 100).setResolution(100, 100)
+                .setRayTracer(scene, RayTracerType.WAVEFRONT);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: rendering tile by tile by threads
+        builder.setMultithreading(2).build().renderImage().writeToImage("wavefrontSphere");
+        // TC02: rendering row by row with anti-aliasing
+        builder.setMultithreading(0).setAntiAliasing(true).setAntiAliasingSamples(3).build().renderImage()
+                .writeToImage("wavefrontSphereAntiAliasing");
+    }
+}